@@ -7,6 +7,7 @@ import generics.InputVerifier;
 import graphics.LightObject;
 import graphics.Population;
 import graphics.Terrain;
+import graphics.TerrainPoints;
 import graphics.TextureObject;
 import helpBox.Adviser;
 import java.io.IOException;
@@ -20,6 +21,7 @@ import javafx.beans.property.StringProperty;
 import javafx.collections.ObservableList;
 import javafx.concurrent.Service;
 import javafx.fxml.FXML;
+import javafx.geometry.Point3D;
 import javafx.scene.Group;
 import javafx.scene.SceneAntialiasing;
 import javafx.scene.SnapshotParameters;
@@ -28,11 +30,13 @@ import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.ColorPicker;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Control;
 import javafx.scene.control.DialogPane;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.RadioButton;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.Slider;
@@ -95,6 +99,10 @@ public class Controller
     // until it is set to true again.
     private boolean listen;
     
+    // Whether or not the terrain's size has been changed since the last time
+    // the terrain finished building
+    private boolean terrainResized;
+    
     Adviser helper;
     private InputVerifier validator;
     
@@ -118,9 +126,16 @@ public class Controller
     @FXML private Button populationButtonVRWI;
     @FXML private Button populationButtonVRHD;
     @FXML private Button populationButtonVRHI;
+    @FXML private Button populationButtonIVD;
+    @FXML private Button populationButtonIVI;
     @FXML private Button populationButtonDRSD;
     @FXML private Button populationButtonDRSI;
     
+    @FXML private CheckBox terrainCheckLOD;
+    @FXML private CheckBox populationCheckMM;
+    @FXML private CheckBox populationCheckID;
+    @FXML private CheckBox populationCheckCM;
+    
     @FXML private ChoiceBox lightChoiceL;
     @FXML private ChoiceBox populationChoiceP;
     
@@ -160,6 +175,8 @@ public class Controller
     
     @FXML private Pane previewContainer;
     
+    @FXML private ProgressIndicator populationProgressP;
+    
     @FXML private RadioButton cameraRadioFOVH;
     @FXML private RadioButton cameraRadioFOVV;
     
@@ -196,6 +213,9 @@ public class Controller
     @FXML private TextField terrainTextDMS;
     @FXML private TextField populationTextVRW;
     @FXML private TextField populationTextVRH;
+    @FXML private TextField populationTextIV;
+    @FXML private TextField populationTextIS;
+    @FXML private TextField populationTextRS;
     @FXML private TextField populationTextDRS;
     
     @FXML private VBox everything;
@@ -426,7 +446,7 @@ public class Controller
                     (int)camTab.getXAdjustment(), cameraSpinnerPAH);
             
             camTab.setXAdjustment(validValue);
-            preview.setCamera(camTab.getCamera());
+            refreshCamera();
         });
         cameraSpinnerPAH.focusedProperty().addListener(
                 (obster, oldster, newster) ->
@@ -437,7 +457,7 @@ public class Controller
                         (int)camTab.getXAdjustment(), cameraSpinnerPAH);
             
                 camTab.setXAdjustment(validValue);
-                preview.setCamera(camTab.getCamera());
+                refreshCamera();
             }
         });
         
@@ -448,7 +468,7 @@ public class Controller
                     (int)camTab.getYAdjustment(), cameraSpinnerPAV);
             
             camTab.setYAdjustment(validValue);
-            preview.setCamera(camTab.getCamera());
+            refreshCamera();
         });
         cameraSpinnerPAV.focusedProperty().addListener(
                 (obster, oldster, newster) ->
@@ -459,7 +479,7 @@ public class Controller
                         (int)camTab.getYAdjustment(), cameraSpinnerPAV);
             
                 camTab.setYAdjustment(validValue);
-                preview.setCamera(camTab.getCamera());
+                refreshCamera();
             }
         });
         
@@ -470,7 +490,7 @@ public class Controller
                     cameraSpinnerPAZ);
             
             recenterCamera();
-            preview.setCamera(camTab.getCamera());
+            refreshCamera();
         });
         cameraSpinnerPAZ.focusedProperty().addListener(
                 (obster, oldster, newster) ->
@@ -480,7 +500,7 @@ public class Controller
                 validateSpinner(false, (int)camTab.getZoom(), cameraSpinnerPAZ);
             
                 recenterCamera();
-                preview.setCamera(camTab.getCamera());
+                refreshCamera();
             }
         });
         
@@ -491,7 +511,7 @@ public class Controller
                     camTab.getFieldOfView(), cameraSpinnerFOVD);
             camTab.setFieldOfView(degrees);
             
-            preview.setCamera(camTab.getCamera());
+            refreshCamera();
         });
         cameraSpinnerFOVD.focusedProperty().addListener((obster, oldster,
                 newster) ->
@@ -502,7 +522,7 @@ public class Controller
                         camTab.getFieldOfView(), cameraSpinnerFOVD);
                 camTab.setFieldOfView(degrees);
             
-                preview.setCamera(camTab.getCamera());
+                refreshCamera();
             }
         });
         
@@ -510,14 +530,14 @@ public class Controller
         {
             camTab.setOrientation(cameraRadioFOVH.isSelected());
             
-            preview.setCamera(camTab.getCamera());
+            refreshCamera();
         });
         
         cameraRadioFOVV.setOnAction((evster) ->
         {
             camTab.setOrientation(cameraRadioFOVH.isSelected());
             
-            preview.setCamera(camTab.getCamera());
+            refreshCamera();
         });
         
         //----------------------------------------------------------------------
@@ -687,6 +707,67 @@ public class Controller
             }
         });
         
+        populationTextIV.textProperty().addListener(
+                (obster, oldster, newster) ->
+        {
+            if (listen && !newster.equals(""))
+            {
+                short count = validator.parsidateVariantCount(newster);
+                
+                if (count != validator.getParseFailValue())
+                {
+                    setPopulationVariantCount(false, count);
+                }
+            }
+        });
+        populationTextIV.focusedProperty().addListener((obster, oldster,
+                newster) ->
+        {
+            if (!newster)
+            {
+                int count = popTab.getActivePopulation().getVariantCount();
+                
+                populationTextIV.setText(String.valueOf(count));
+            }
+        });
+        
+        populationTextIS.textProperty().addListener(
+                (obster, oldster, newster) ->
+        {
+            if (listen && !newster.equals(""))
+            {
+                short size = validator.parsidateImpostorSize(newster);
+                
+                if (size != validator.getParseFailValue())
+                {
+                    popTab.getActivePopulation().setImpostorSize(size);
+                }
+            }
+        });
+        populationTextIS.focusedProperty().addListener((obster, oldster,
+                newster) ->
+        {
+            if (!newster)
+            {
+                int size = popTab.getActivePopulation().getImpostorSize();
+                
+                populationTextIS.setText(String.valueOf(size));
+            }
+        });
+        
+        // The seed is only set once it has been entered, as every seed typed
+        // along the way would re-generate the population
+        populationTextRS.focusedProperty().addListener((obster, oldster,
+                newster) ->
+        {
+            if (!newster)
+            {
+                long seed = popTab.getActivePopulation().getSeed();
+                
+                populationTextRS.setText(String.valueOf(seed));
+            }
+        });
+        
         populationTextDRS.textProperty().addListener((obster, oldster, newster)
                 ->
         {
@@ -830,6 +911,8 @@ public class Controller
                 displayHelp(terrainTextVRW));
         terrainTextVRD.hoverProperty().addListener((event)->
                 displayHelp(terrainTextVRD));
+        terrainCheckLOD.hoverProperty().addListener((event)->
+                displayHelp(terrainCheckLOD));
         terrainComboDM.hoverProperty().addListener((event)->
                 displayHelp(terrainComboDM));
         terrainTextDMS.hoverProperty().addListener((event)->
@@ -861,6 +944,18 @@ public class Controller
                 displayHelp(populationTextVRW));
         populationTextVRH.hoverProperty().addListener((event)->
                 displayHelp(populationTextVRH));
+        populationTextIV.hoverProperty().addListener((event)->
+                displayHelp(populationTextIV));
+        populationCheckMM.hoverProperty().addListener((event)->
+                displayHelp(populationCheckMM));
+        populationCheckID.hoverProperty().addListener((event)->
+                displayHelp(populationCheckID));
+        populationCheckCM.hoverProperty().addListener((event)->
+                displayHelp(populationCheckCM));
+        populationTextIS.hoverProperty().addListener((event)->
+                displayHelp(populationTextIS));
+        populationTextRS.hoverProperty().addListener((event)->
+                displayHelp(populationTextRS));
         populationComboDR1.hoverProperty().addListener((event)->
                 displayHelp(populationComboDR1));
         populationComboDR2.hoverProperty().addListener((event)->
@@ -915,7 +1010,9 @@ public class Controller
     }
     
     /**
-     * Adds all of the Population objects to the preview
+     * Adds all of the Population objects to the preview. Populations that are
+     * still being generated fill in as their Individuals are finished, while
+     * the rest of the controls stay usable.
      * 
      * @param previewItems A group containing all objects to be used in the
      *                     SubScene preview except the Populations
@@ -924,65 +1021,54 @@ public class Controller
     {
         Service[] services = popTab.getServices();
         
-        // As long as there is at least 1 Population object...
-        if (services.length > 0)
+        // For each of the Populations...
+        for (short i = 0; i < services.length; i++)
         {
-            // ...disable all of the controls
-            everything.setDisable(true);
+            Population popster = popTab.getPopulation(i);
             
-            // For each of the Populations...
-            for (short i = 0; i < services.length; i++)
+            // ...add its meshes. If it is still being generated, they are
+            // added to as the Individuals come in.
+            previewItems.getChildren().add(popster.getMeshes());
+            
+            // If the Population's Service is in use...
+            if (popster.isServicePrepared())
             {
-                // ...if the Population's Service is in use...
-                if (popTab.getPopulation(i).isServicePrepared())
+                // The generation being worked on. If the population is changed
+                // again before it finishes, it is out of date.
+                final int GENERATION = popster.getGeneration();
+                
+                // ...once the service is finished...
+                services[i].setOnSucceeded(e ->
                 {
-                    // The incrementation variable must be final to be used in
-                    // the lando
-                    final short I = i;
-            
-                    // Once the service is finished...
-                    services[i].setOnSucceeded(e ->
-                    {
-                        // ...perform the post-service activities on the active
-                        // population.
-                        popTab.getPopulation(I).concludeService();
+                    // ...perform the post-service activities on the
+                    // population. Its meshes are swapped for the finished
+                    // population, as long as it is up to date.
+                    popster.concludeService(GENERATION);
+                    
+                    showPopulationProgress();
+                });
                 
-                        addPopulationToPreview(I, previewItems);
-                    });
-                }
-                // ...otherwise, if the Population is not using a Service...
-                else
+                Service<?> servster = services[i];
+                
+                // If the service fails instead...
+                servster.setOnFailed(e ->
                 {
-                    // ...just add it.
-                    addPopulationToPreview(i, previewItems);
-                }
+                    // ...the population stops waiting for it. The user is
+                    // only told if it was still up to date.
+                    boolean current = popster.abandonService(GENERATION);
+                    
+                    showPopulationProgress();
+                    
+                    if (current)
+                    {
+                        showPopulationErrorDialog(popster.getName(),
+                                servster.getException());
+                    }
+                });
             }
         }
-    }
-    
-    /**
-     * Adds a population object to the preview. Re-enables all of the controls 
-     * if there are no longer any population objects running a Service.
-     * 
-     * @param index The index of the Population object to add to the preview
-     * @param previewItems All of the other items in the preview (terrain,
-     *                     lights, etc)
-     */
-    private void addPopulationToPreview(short index, Group previewItems)
-    {
-        // Add the population's meshes to the Group
-        previewItems.getChildren().add(popTab.getPopulation(index).getMeshes());
-                
-        // Apply the content to the preview pane
-        preview.setRoot(previewItems);
         
-
-        // If all of the populations Services are finished...
-        if (!popTab.isServicePrepared())
-        {
-            // ...re-enable all of the controls
-            everything.setDisable(false);
-        }
+        showPopulationProgress();
     }
     
     /**
@@ -1026,16 +1112,9 @@ public class Controller
             
             terrainImageDM.setImage(texster.getImage());
 
-            // Set the image as the displacement map
+            // Set the image as the displacement map. The terrain is rebuilt
+            // in the background.
             terTab.getTerrain().setDisplacement(texster);
-            
-            // Populations must be re-positioned since the shape of the terrain
-            // has changed
-            popTab.repositionPopulations(terTab.getTerrain().getPoints());
-            
-            recenterOnTerrain();
-            
-            refreshPreview();
         }
     }
     
@@ -1269,6 +1348,85 @@ public class Controller
         }
     }
     
+    /**
+     * Turns the terrain's level-of-detail mode on or off to match the
+     * level-of-detail check box
+     */
+    @FXML
+    private void changeTerrainDetail()
+    {
+        if (listen)
+        {
+            terTab.getTerrain().setLevelOfDetail(terrainCheckLOD.isSelected());
+            
+            refreshPreview();
+        }
+    }
+    
+    /**
+     * Turns the releasing of the data the active population's Individuals can
+     * rebuild on or off to match the compact check box
+     */
+    @FXML
+    private void changePopulationCompact()
+    {
+        if (listen)
+        {
+            popTab.getActivePopulation().setCompact(
+                    populationCheckCM.isSelected());
+        }
+    }
+    
+    /**
+     * Turns the showing of the active population's distant Individuals by
+     * impostors on or off to match the impostor check box
+     */
+    @FXML
+    private void changePopulationImpostors()
+    {
+        if (listen)
+        {
+            popTab.getActivePopulation().setImpostorMode(
+                    populationCheckID.isSelected());
+            
+            refreshPreview();
+        }
+    }
+    
+    /**
+     * Turns the merging of the active population's Individuals into a few
+     * large meshes on or off to match the merge check box
+     */
+    @FXML
+    private void changePopulationMerge()
+    {
+        if (listen)
+        {
+            popTab.getActivePopulation().setMerged(
+                    populationCheckMM.isSelected());
+            
+            refreshPreview();
+        }
+    }
+    
+    /**
+     * Re-generates the active population from the seed entered into the seed
+     * TextField
+     */
+    @FXML
+    private void changePopulationSeed()
+    {
+        String seedText = populationTextRS.getText();
+        
+        if (listen && validator.isSeedValid(seedText))
+        {
+            popTab.getActivePopulation().setSeed(Long.parseLong(seedText),
+                    terTab.getTerrain().getPoints());
+            
+            refreshPreview();
+        }
+    }
+    
     /**
      * Changes the terrain's diffuse map to what is currently set in the diffuse
      * map combo box
@@ -1377,6 +1535,37 @@ public class Controller
         listen = true;
     }
     
+    /**
+     * Brings everything placed relative to the terrain in line with it once a
+     * change to it has finished building
+     */
+    private void concludeTerrainBuild()
+    {
+        TerrainPoints terrainPoints = terTab.getTerrain().getPoints();
+        
+        // If the terrain's size changed...
+        if (terrainResized)
+        {
+            // ...the populations need to be recreated to fit it.
+            popTab.updateForTerrainSizeChange((short)terrainPoints.getWidth(),
+                    (short)terrainPoints.getDepth(), terrainPoints);
+            
+            terrainResized = false;
+        }
+        // ...otherwise, only its shape changed...
+        else
+        {
+            // ...so the populations only need to be re-positioned.
+            popTab.repositionPopulations(terrainPoints);
+        }
+        
+        recenterOnTerrain();
+        
+        ligTab.repositionLights();
+        
+        refreshPreview();
+    }
+    
     /**
      * Creates a new light. For use when the user clicks the "New" button on the
      * light tab.
@@ -1423,8 +1612,13 @@ public class Controller
         
         Terrain terster = terTab.getTerrain();
         
-        name = popTab.createPopulation(terster.getWidth(), terster.getDepth(),
-                xRotate, yRotate, terster.getPoints());
+        TerrainPoints terrainPoints = terster.getPoints();
+        
+        // The size of the terrain on screen is used, as the size set may still
+        // be being built
+        name = popTab.createPopulation((short)terrainPoints.getWidth(),
+                (short)terrainPoints.getDepth(), xRotate, yRotate,
+                terrainPoints);
             
         // As long as a name was given by the user...
         if (!name.equals(""))
@@ -1469,6 +1663,22 @@ public class Controller
         }
     }
     
+    /**
+     * Decreases the number of meshes shared by the active population's
+     * Individuals by 1. The TextField is also updated to reflect the changes.
+     */
+    @FXML
+    private void decrementPopulationVariantCount()
+    {
+        short count = validator.parsePopulationSize(populationTextIV.getText());
+        
+        if (count != validator.getParseFailValue() &&
+                validator.validateVariantCount(--count))
+        {
+            setPopulationVariantCount(true, count);
+        }
+    }
+    
     /**
      * Decreases the height (in vertices) of the active population by 1. The
      * TextField is also updated to reflect the changes.
@@ -1752,6 +1962,14 @@ public class Controller
         populationButtonVRHD.setDisable(!toEnable);
         populationTextVRH.setDisable(!toEnable);
         populationButtonVRHI.setDisable(!toEnable);
+        populationButtonIVD.setDisable(!toEnable);
+        populationTextIV.setDisable(!toEnable);
+        populationButtonIVI.setDisable(!toEnable);
+        populationCheckMM.setDisable(!toEnable);
+        populationCheckID.setDisable(!toEnable);
+        populationTextIS.setDisable(!toEnable);
+        populationCheckCM.setDisable(!toEnable);
+        populationTextRS.setDisable(!toEnable);
         populationComboDR1.setDisable(!toEnable);
         populationComboDR2.setDisable(!toEnable);
         populationButtonDRSD.setDisable(!toEnable);
@@ -1795,6 +2013,9 @@ public class Controller
         validator.formatNumericTextField(populationTextDRS);
         validator.formatNumericTextField(populationTextVRW);
         validator.formatNumericTextField(populationTextVRH);
+        validator.formatNumericTextField(populationTextIV);
+        validator.formatNumericTextField(populationTextIS);
+        validator.formatNumericTextField(populationTextRS);
         
         validator.formatNumericSpinner(renderSpinnerRW);
         validator.formatNumericSpinner(renderSpinnerRH);
@@ -1848,6 +2069,22 @@ public class Controller
         }
     }
     
+    /**
+     * Increases the number of meshes shared by the active population's
+     * Individuals by 1. The TextField is also updated to reflect the changes.
+     */
+    @FXML
+    private void incrementPopulationVariantCount()
+    {
+        short count = validator.parsePopulationSize(populationTextIV.getText());
+        
+        if (count != validator.getParseFailValue() &&
+                validator.validateVariantCount(++count))
+        {
+            setPopulationVariantCount(true, count);
+        }
+    }
+    
     /**
      * Increases the height (in vertices) of the active population by 1. The
      * TextField is also updated to reflect the changes.
@@ -2020,6 +2257,18 @@ public class Controller
                 Integer.toString(activePopulation.getVertexHeight()));
         populationTextVRW.setText(
                 Integer.toString(activePopulation.getVertexWidth()));
+        populationTextIV.setText(
+                Integer.toString(activePopulation.getVariantCount()));
+        populationTextRS.setText(Long.toString(activePopulation.getSeed()));
+        populationTextIS.setText(
+                Integer.toString(activePopulation.getImpostorSize()));
+        
+        // Set the CheckBoxes
+        populationCheckMM.setSelected(activePopulation.isMerged());
+        populationCheckID.setSelected(activePopulation.isImpostorMode());
+        populationCheckCM.setSelected(activePopulation.isCompact());
+        
+        showPopulationProgress();
     }
     
     /**
@@ -2065,6 +2314,7 @@ public class Controller
         loadTooltip(terrainTab);
         loadTooltip(terrainTextVRW);
         loadTooltip(terrainTextVRD);
+        loadTooltip(terrainCheckLOD);
         loadTooltip(terrainComboDM);
         loadTooltip(terrainTextDMS);
         loadTooltip(terrainComboDM2);
@@ -2082,6 +2332,12 @@ public class Controller
         loadTooltip(populationComboSH);
         loadTooltip(populationTextVRW);
         loadTooltip(populationTextVRH);
+        loadTooltip(populationTextIV);
+        loadTooltip(populationCheckMM);
+        loadTooltip(populationCheckID);
+        loadTooltip(populationTextIS);
+        loadTooltip(populationCheckCM);
+        loadTooltip(populationTextRS);
         loadTooltip(populationComboDR1);
         loadTooltip(populationComboDR2);
         loadTooltip(populationTextDRS);
@@ -2225,10 +2481,16 @@ public class Controller
     {
         terTab.prepareTerrain();
         
+        terrainResized = false;
+        
+        // Whenever a change to the terrain finishes building, everything
+        // placed relative to it needs to catch up
+        terTab.getTerrain().setOnBuilt(this::concludeTerrainBuild);
+        
         resetPreviewSize();
         
         refreshPreview();
-        preview.setCamera(camTab.getCamera());
+        refreshCamera();
         preview.setFill(renTab.getBackColor());
     }
     
@@ -2249,6 +2511,8 @@ public class Controller
         camTab.setCameraOffset(previewWidth / 2, previewHeight / 2);
         // Zoom the camera in or out if needed
         camTab.zoomForResize(cameraSpinnerPAZ.getValue(), previewAverage);
+        
+        refreshTerrainDetail();
     }
     
     /**
@@ -2282,6 +2546,16 @@ public class Controller
         ligTab.setFurthestPoint(terrainFarPoint);
     }
     
+    /**
+     * Applies the camera's latest settings to the preview
+     */
+    private void refreshCamera()
+    {
+        preview.setCamera(camTab.getCamera());
+        
+        refreshTerrainDetail();
+    }
+    
     /**
      * Refreshes the content in the preview pane
      */
@@ -2296,7 +2570,7 @@ public class Controller
         previewItems.getTransforms().add(camTab.getYRotate());
         
         // Add the terrain
-        previewItems.getChildren().add(terTab.getTerrain().getMeshView());
+        previewItems.getChildren().add(terTab.getTerrain().getPreviewNode());
         
         // Add each light
         for (int i = 0; i < lightAmount; i++)
@@ -2308,6 +2582,29 @@ public class Controller
         preview.setRoot(previewItems);
         
         addPopulationsToPreview(previewItems);
+        
+        refreshTerrainDetail();
+    }
+    
+    /**
+     * Lets the terrain know where the camera is viewing it from so that, in
+     * level-of-detail mode, it can adjust its detail to suit. The populations
+     * are also told where the camera is and what it can see, so that they
+     * leave out whatever is out of view and, in impostor mode, swap what is
+     * far away for impostors.
+     */
+    private void refreshTerrainDetail()
+    {
+        double previewWidth = preview.getWidth();
+        double previewHeight = preview.getHeight();
+        
+        Point3D eye = camTab.getEyePosition(previewWidth, previewHeight);
+        double focalLength = camTab.getFocalLength(previewWidth, previewHeight);
+        
+        terTab.getTerrain().setCamera(eye, focalLength);
+        
+        popTab.setFrustum(camTab.getFrustum(previewWidth, previewHeight));
+        popTab.setCamera(eye, focalLength);
     }
     
     /**
@@ -2381,9 +2678,16 @@ public class Controller
         // The title for the progress dialog
         String actionDescription = "Re-generating Population";
         
-        popTab.getActivePopulation().load(actionDescription,
+        Population activePopulation = popTab.getActivePopulation();
+        
+        // Without a new seed, the population would be generated just as it
+        // was before
+        activePopulation.reseed();
+        activePopulation.load(actionDescription,
                 terTab.getTerrain().getPoints());
         
+        populationTextRS.setText(Long.toString(activePopulation.getSeed()));
+        
         refreshPreview();
     }
     
@@ -2403,7 +2707,7 @@ public class Controller
         
         String name = texster.getName();
         
-        float[] terrainPoints;
+        TerrainPoints terrainPoints;
         
         ImageView viewster = texster.getView();
         
@@ -2690,6 +2994,8 @@ public class Controller
             
             cameraRadioFOVH.setSelected(true);
             
+            terrainCheckLOD.setSelected(false);
+            
             // Reset text field text
             terrainTextDMS.setText(Integer.toString(
                     terTab.getDefaultStrength()));
@@ -2764,6 +3070,13 @@ public class Controller
                 Integer.toString(popTab.getDefaultVertexWidth()));
         populationTextVRH.setText(
                 Integer.toString(popTab.getDefaultVertexHeight()));
+        populationTextIV.setText("0");
+        populationTextRS.setText("");
+        populationCheckMM.setSelected(false);
+        populationCheckID.setSelected(false);
+        populationCheckCM.setSelected(false);
+        populationTextIS.setText(
+                Integer.toString(popTab.getDefaultImpostorSize()));
         populationComboDR1.setValue("");
         populationComboDR2.setValue("");
         populationTextDRS.setText(
@@ -2869,8 +3182,7 @@ public class Controller
     {
         listen = false;
         
-        popTab.getActivePopulation().setDisplacementStrength(strength,
-                terTab.getTerrain().getPoints());
+        popTab.getActivePopulation().setDisplacementStrength(strength);
         
         refreshPreview();
         
@@ -2882,6 +3194,35 @@ public class Controller
         listen = true;
     }
     
+    /**
+     * Sets the number of meshes shared by the currently-selected population's
+     * Individuals. The TextField is also updated to reflect the changes.
+     * 
+     * @param updateTextBox Whether or not the TextBox should be updated to
+     *                      display the given count.
+     *                      Updating the TextBox when this method is called from
+     *                      a listener can cause an exception within JavaFX, so
+     *                      it would be a good idea to set this to false if it
+     *                      is not needed.
+     * @param count The number of shared meshes to be set
+     */
+    private void setPopulationVariantCount(boolean updateTextBox, short count)
+    {
+        listen = false;
+        
+        popTab.getActivePopulation().setVariantCount(count,
+                terTab.getTerrain().getPoints());
+        
+        refreshPreview();
+        
+        if (updateTextBox)
+        {
+            populationTextIV.setText(Short.toString(count));
+        }
+        
+        listen = true;
+    }
+    
     /**
      * Sets the height (in vertices) of the currently-selected population. The
      * TextField is also updated to reflect the changes.
@@ -2958,18 +3299,12 @@ public class Controller
         listen = false;
         
         terTab.getTerrain().setDisplacementStrength(strength);
-            
-        popTab.repositionPopulations(terTab.getTerrain().getPoints());
         
         if (updateTextBox)
         {
             terrainTextDMS.setText(Short.toString(strength));
         }
         
-        recenterOnTerrain();
-            
-        refreshPreview();
-        
         listen = true;
     }
     
@@ -2989,11 +3324,9 @@ public class Controller
     {
         listen = false;
         
+        terrainResized = true;
+        
         terTab.getTerrain().setDepth(depth);
-            
-        updatePopulationsForTerrainSizeChange(false, depth);
-            
-        ligTab.repositionLights();
                 
         if (updateTextBox)
         {
@@ -3019,11 +3352,9 @@ public class Controller
     {
         listen = false;
         
+        terrainResized = true;
+        
         terTab.getTerrain().setWidth(width);
-            
-        updatePopulationsForTerrainSizeChange(true, width);
-            
-        ligTab.repositionLights();
            
         if (updateTextBox)
         {
@@ -3033,6 +3364,69 @@ public class Controller
         listen = true;
     }
     
+    /**
+     * Display the error dialog telling the user that a population could not be
+     * generated
+     * 
+     * @param name The name of the population
+     * @param cause What stopped the population from being generated. May be
+     *              null.
+     */
+    private void showPopulationErrorDialog(String name, Throwable cause)
+    {
+        Alert alster = new Alert(AlertType.ERROR);
+        
+        styleDialog(alster);
+        
+        String reason = "";
+        
+        // If the reason is known...
+        if (cause != null)
+        {
+            // ...include it.
+            reason = "\n\nReason: " + cause;
+        }
+        
+        alster.setTitle("Error");
+        alster.setHeaderText("Unable to Generate Population");
+        alster.setContentText("Sand Paper was unable to generate the \""
+                + name + "\" population." + reason
+                + "\n\nPress \"Repeat Generation\" to try again.");
+        
+        alster.setGraphic(new ImageView("/icons/icon.png"));
+        
+        alster.showAndWait();
+    }
+    
+    /**
+     * Shows how far along the currently-selected population's generation is.
+     * The indicator is hidden while the population is not being generated.
+     */
+    private void showPopulationProgress()
+    {
+        populationProgressP.progressProperty().unbind();
+        populationProgressP.visibleProperty().unbind();
+        
+        // If the selected population is being generated...
+        if (popTab.getPopulationAmount() > 0
+                && popTab.getActivePopulation().isServicePrepared())
+        {
+            Service<?> servster = popTab.getActivePopulation().getService();
+            
+            // ...follow its progress until it finishes.
+            populationProgressP.progressProperty().bind(
+                    servster.progressProperty());
+            populationProgressP.visibleProperty().bind(
+                    servster.runningProperty());
+        }
+        // ...otherwise...
+        else
+        {
+            // ...there is nothing to show.
+            populationProgressP.setVisible(false);
+        }
+    }
+    
     /**
      * Display the error dialog telling the user that Sand Paper failed to open
      * a tutorial file
@@ -3098,35 +3492,6 @@ public class Controller
         refreshPreview();
     }
     
-    /**
-     * Recreates the populations to accommodate the terrain's new size
-     * 
-     * @param didWidthChange Whether or not the terrain's width was adjusted
-     * @param terrainSize The new size of the terrain
-     */
-    private void updatePopulationsForTerrainSizeChange(boolean didWidthChange,
-            short terrainSize)
-    {
-        // If the terrain's width changed...
-        if (didWidthChange)
-        {
-            // ...update the populations for a width change.
-            popTab.updateForTerrainWidthChange(terrainSize,
-                    terTab.getTerrain().getPoints());
-        }
-        // ...otherwise, the terrain's depth must have changed...
-        else
-        {
-            // ...so update them for a depth change.
-            popTab.updateForTerrainDepthChange(terrainSize,
-                    terTab.getTerrain().getPoints());
-        }
-        
-        recenterOnTerrain();
-        
-        refreshPreview();
-    }
-    
     /**
      * Gets the value of the provided integer spinner if it validates.
      * Otherwise, it returns the provided old value.
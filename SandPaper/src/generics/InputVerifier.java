@@ -18,6 +18,8 @@ public class InputVerifier
     private final byte MAX_DISPLACEMENT_STRENGTH_DIGIT_COUNT = 4;
     private final byte MAX_POPULATION_SIZE_DIGIT_COUNT = 3;
     private final byte MAX_TERRAIN_SIZE_DIGIT_COUNT = 4;
+    // The most digits a seed can have while always fitting into a long
+    private final byte MAX_SEED_DIGIT_COUNT = 18;
     // The maximum number of digits that spinners are allowed to have
     private final byte MAX_SPINNER_DIGIT_AMOUNT = 5;
     
@@ -28,6 +30,12 @@ public class InputVerifier
     private final short MIN_MESH_SIZE = 2;
     // The least displaced the vertices in the terrain and populations can be
     private final short MIN_DISPLACEMENT_STRENGTH = 0;
+    // The fewest meshes that a population's Individuals can share. 0 gives
+    // each Individual a mesh of its own.
+    private final short MIN_VARIANT_COUNT = 0;
+    // The smallest size (in pixels on the screen) below which a population's
+    // Individuals can be shown by impostors
+    private final short MIN_IMPOSTOR_SIZE = 1;
     
     // Format that limits the allowed characters to digits and the negative (-)
     // symbol
@@ -123,6 +131,18 @@ public class InputVerifier
         return foundMisplacedDash;
     }
     
+    /**
+     * Checks if a string is a valid seed for a population
+     * 
+     * @param seed The seed in the form of a string
+     * 
+     * @return Whether or not the string can be parsed into a seed
+     */
+    public boolean isSeedValid(String seed)
+    {
+        return seed.matches("-?\\d{1," + MAX_SEED_DIGIT_COUNT + "}");
+    }
+    
     /**
      * Checks if a value of a spinner is valid. Even though spinners may already
      * be formated with a regex, expressions applied to spinners are only able
@@ -214,6 +234,29 @@ public class InputVerifier
         return parsidatedStrength;
     }
     
+    /**
+     * Parses and validates a string of the size (in pixels on the screen) that
+     * a population's Individuals must appear smaller than to be shown by
+     * impostors
+     * 
+     * @param size The impostor size
+     * 
+     * @return The String value parsed into the form of a short. If the value
+     *         failed its validation or it failed to be parsed, a -1 is
+     *         returned.
+     */
+    public short parsidateImpostorSize(String size)
+    {
+        short parsidatedSize = parsePopulationSize(size);
+        
+        if (!validateImpostorSize(parsidatedSize))
+        {
+            parsidatedSize = FAIL_VALUE;
+        }
+        
+        return parsidatedSize;
+    }
+    
     /**
      * Parses and validates a string of the vertex width or height of a
      * population
@@ -257,6 +300,28 @@ public class InputVerifier
         return parsidatedSize;
     }
     
+    /**
+     * Parses and validates a string of the number of meshes that a
+     * population's Individuals share
+     * 
+     * @param count The number of shared meshes
+     * 
+     * @return The String value parsed into the form of a short. If the value
+     *         failed its validation or it failed to be parsed, a -1 is
+     *         returned.
+     */
+    public short parsidateVariantCount(String count)
+    {
+        short parsidatedCount = parsePopulationSize(count);
+        
+        if (!validateVariantCount(parsidatedCount))
+        {
+            parsidatedCount = FAIL_VALUE;
+        }
+        
+        return parsidatedCount;
+    }
+    
     /**
      * Parses a given string of a displacement strength value into a short
      * 
@@ -321,4 +386,30 @@ public class InputVerifier
     {
         return strength > MIN_DISPLACEMENT_STRENGTH;
     }
+    
+    /**
+     * Validates whether or not a size for when a population's Individuals are
+     * shown by impostors is too small
+     * 
+     * @param size The impostor size (in pixels on the screen)
+     * 
+     * @return Whether or not the given size is large enough
+     */
+    public boolean validateImpostorSize(short size)
+    {
+        return size >= MIN_IMPOSTOR_SIZE;
+    }
+    
+    /**
+     * Validates whether or not a value for the number of meshes shared by a
+     * population's Individuals is too small
+     * 
+     * @param count The number of shared meshes
+     * 
+     * @return Whether or not the given number is large enough
+     */
+    public boolean validateVariantCount(short count)
+    {
+        return count >= MIN_VARIANT_COUNT;
+    }
 }
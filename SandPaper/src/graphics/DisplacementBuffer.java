@@ -0,0 +1,368 @@
+package graphics;
+
+import java.nio.IntBuffer;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritablePixelFormat;
+
+/**
+ * The color data sampled from a displacement map for each vertex of a mesh.
+ * 
+ * Each color channel is kept in its own primitive array (red for the x axis,
+ * green for the y axis and blue for the z axis) so that a mesh with millions of
+ * vertices does not need millions of Color objects. The channels are stored at
+ * the 8-bit precision of the image they were sampled from, so the normalized
+ * values returned are the same values a Color read from that image would give.
+ * 
+ * A buffer may also hold only a section of a larger mesh (such as one chunk of
+ * the terrain), in which case it samples only that section's part of the map.
+ * 
+ * @author George Tiersma
+ */
+public class DisplacementBuffer
+{
+    // The largest value that a color channel can have
+    private static final double CHANNEL_MAX = 255.0;
+    
+    // Bits that a pixel's ARGB value must be shifted to reach each channel
+    private static final byte RED_SHIFT = 16;
+    private static final byte GREEN_SHIFT = 8;
+    
+    // The width of the mesh (or section) in vertices
+    private int width;
+    // The depth of the mesh (or section) in vertices
+    private int depth;
+    
+    // The numbers of the first column and row of vertices in the section
+    // within the full mesh
+    private int firstColumn;
+    private int firstRow;
+    
+    // The width and depth of the full mesh in vertices
+    private int totalWidth;
+    private int totalDepth;
+    
+    // The red, green and blue amounts for each vertex. The vertices are
+    // numbered left to right, top to bottom, the same as in a mesh's point
+    // array.
+    private byte[] reds;
+    private byte[] greens;
+    private byte[] blues;
+    
+    /**
+     * CONSTRUCTOR
+     * 
+     * @param widthster The width of the mesh in vertices
+     * @param depthster The depth of the mesh in vertices
+     */
+    public DisplacementBuffer(int widthster, int depthster)
+    {
+        this(widthster, depthster, 0, 0, widthster, depthster);
+    }
+    
+    /**
+     * CONSTRUCTOR
+     * 
+     * For a buffer holding only a section of a larger mesh
+     * 
+     * @param widthster The width of the section in vertices
+     * @param depthster The depth of the section in vertices
+     * @param firstX The number of the section's first column of vertices
+     *               within the full mesh
+     * @param firstZ The number of the section's first row of vertices within
+     *               the full mesh
+     * @param fullWidth The width of the full mesh in vertices
+     * @param fullDepth The depth of the full mesh in vertices
+     */
+    public DisplacementBuffer(int widthster, int depthster, int firstX,
+            int firstZ, int fullWidth, int fullDepth)
+    {
+        width = widthster;
+        depth = depthster;
+        
+        firstColumn = firstX;
+        firstRow = firstZ;
+        
+        totalWidth = fullWidth;
+        totalDepth = fullDepth;
+        
+        reds = new byte[width * depth];
+        greens = new byte[width * depth];
+        blues = new byte[width * depth];
+    }
+    
+    /**
+     * Gets the blue amount (ranging 0.0 - 1.0) sampled for a vertex
+     * 
+     * @param index The number of the vertex
+     * 
+     * @return The vertex's blue amount
+     */
+    public double getBlue(int index)
+    {
+        return (blues[index] & 0xFF) / CHANNEL_MAX;
+    }
+    
+    /**
+     * Gets the depth of the mesh (measured in vertices) this buffer holds data
+     * for
+     * 
+     * @return The depth of the mesh
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+    
+    /**
+     * Gets the number of the first column of vertices held within the full
+     * mesh
+     * 
+     * @return The first column. 0 unless only a section is held.
+     */
+    public int getFirstColumn()
+    {
+        return firstColumn;
+    }
+    
+    /**
+     * Gets the number of the first row of vertices held within the full mesh
+     * 
+     * @return The first row. 0 unless only a section is held.
+     */
+    public int getFirstRow()
+    {
+        return firstRow;
+    }
+    
+    /**
+     * Gets the green amount (ranging 0.0 - 1.0) sampled for a vertex
+     * 
+     * @param index The number of the vertex
+     * 
+     * @return The vertex's green amount
+     */
+    public double getGreen(int index)
+    {
+        return (greens[index] & 0xFF) / CHANNEL_MAX;
+    }
+    
+    /**
+     * Gets the red amount (ranging 0.0 - 1.0) sampled for a vertex
+     * 
+     * @param index The number of the vertex
+     * 
+     * @return The vertex's red amount
+     */
+    public double getRed(int index)
+    {
+        return (reds[index] & 0xFF) / CHANNEL_MAX;
+    }
+    
+    /**
+     * Gets the width of the mesh (measured in vertices) this buffer holds data
+     * for
+     * 
+     * @return The width of the mesh
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+    
+    /**
+     * Sets the color of a vertex directly, for samples that are generated
+     * rather than taken from a displacement map
+     * 
+     * @param index The number of the vertex
+     * @param red The vertex's red amount (ranging 0 - 255)
+     * @param green The vertex's green amount (ranging 0 - 255)
+     * @param blue The vertex's blue amount (ranging 0 - 255)
+     */
+    public void setColor(int index, int red, int green, int blue)
+    {
+        reds[index] = (byte)red;
+        greens[index] = (byte)green;
+        blues[index] = (byte)blue;
+    }
+    
+    /**
+     * Samples the pixel colors for each vertex from a displacement map.
+     * 
+     * If the map has at least twice as many pixels between each vertex as
+     * there are vertices, each vertex is given the average color of the pixels
+     * around it, taken from the map's pyramid. Otherwise, each vertex is given
+     * the color of the single pixel it falls on.
+     * 
+     * @param dister The displacement map
+     */
+    public void load(Image dister)
+    {
+        // The distance of pixels between each pixel to be gathered.
+        double xSpacing = dister.getWidth() / totalWidth;
+        double ySpacing = dister.getHeight() / totalDepth;
+        
+        // The pyramid level with pixels closest to the vertices' spacing
+        int level = DisplacementPyramid.getLevel(Math.min(xSpacing,
+                ySpacing));
+        
+        if (level > 0)
+        {
+            loadAverages(DisplacementPyramid.get(dister), level, xSpacing,
+                    ySpacing);
+        }
+        else
+        {
+            loadPixels(dister, xSpacing, ySpacing);
+        }
+    }
+    
+    /**
+     * Gives each vertex the average color of the pixels in one level of a
+     * displacement map's pyramid that lie between it and the next vertex
+     * 
+     * @param pyramid The displacement map's pyramid
+     * @param level The level to take the pixels from (1 or greater)
+     * @param xSpacing The distance in pixels on the full map between each
+     *                 column of vertices
+     * @param ySpacing The distance in pixels on the full map between each row
+     *                 of vertices
+     */
+    private void loadAverages(DisplacementPyramid pyramid, int level,
+            double xSpacing, double ySpacing)
+    {
+        byte[] levelReds = pyramid.getReds(level);
+        byte[] levelGreens = pyramid.getGreens(level);
+        byte[] levelBlues = pyramid.getBlues(level);
+        
+        int levelWidth = pyramid.getWidth(level);
+        int levelHeight = pyramid.getHeight(level);
+        
+        // The distance between each vertex in pixels on this level
+        double levelXSpacing = xSpacing / (1 << level);
+        double levelYSpacing = ySpacing / (1 << level);
+        
+        // The first pixel of each column of vertices and the pixel after its
+        // last one
+        int[] starts = new int[width];
+        int[] ends = new int[width];
+        
+        for (int x = 0; x < width; x++)
+        {
+            int column = firstColumn + x;
+            
+            starts[x] = Math.min((int)(levelXSpacing * column), levelWidth - 1);
+            ends[x] = Math.max(Math.min((int)(levelXSpacing * (column + 1)),
+                    levelWidth), starts[x] + 1);
+        }
+        
+        // For each row of vertices...
+        for (int z = 0; z < depth; z++)
+        {
+            // Rows need to be taken from the image backwards to prevent the
+            // displacement map from being flipped horizontally when applied to
+            // the mesh.
+            int row = totalDepth - firstRow - z - 1;
+            
+            int top = Math.min((int)(levelYSpacing * row), levelHeight - 1);
+            int bottom = Math.max(Math.min((int)(levelYSpacing * (row + 1)),
+                    levelHeight), top + 1);
+            
+            // The number of the first vertex in the row
+            int index = z * width;
+            
+            // For each vertex in the row...
+            for (int x = 0; x < width; x++)
+            {
+                // ...add up the pixels it covers.
+                int red = 0;
+                int green = 0;
+                int blue = 0;
+                
+                for (int y = top; y < bottom; y++)
+                {
+                    for (int i = y * levelWidth + starts[x];
+                            i < y * levelWidth + ends[x]; i++)
+                    {
+                        red = red + (levelReds[i] & 0xFF);
+                        green = green + (levelGreens[i] & 0xFF);
+                        blue = blue + (levelBlues[i] & 0xFF);
+                    }
+                }
+                
+                int count = (bottom - top) * (ends[x] - starts[x]);
+                
+                reds[index] = (byte)((red + count / 2) / count);
+                greens[index] = (byte)((green + count / 2) / count);
+                blues[index] = (byte)((blue + count / 2) / count);
+                
+                index++;
+            }
+        }
+    }
+    
+    /**
+     * Gives each vertex the color of the single pixel of a displacement map
+     * that it falls on. Each row of pixels needed is read from the image in a
+     * single bulk read.
+     * 
+     * @param dister The displacement map
+     * @param xSpacing The distance in pixels between each column of vertices
+     * @param ySpacing The distance in pixels between each row of vertices
+     */
+    private void loadPixels(Image dister, double xSpacing, double ySpacing)
+    {
+        PixelReader readster = dister.getPixelReader();
+        WritablePixelFormat<IntBuffer> formster
+                = PixelFormat.getIntArgbInstance();
+        
+        // Only the pixels from the first to the last one that is sampled need
+        // to be read
+        int rowStart = (int)(xSpacing * firstColumn);
+        int rowLength = (int)(xSpacing * (firstColumn + width - 1)) + 1
+                - rowStart;
+        
+        // The colors of the pixels in the row currently being sampled
+        int[] rowPixels = new int[rowLength];
+        
+        // The row of pixels currently in the rowPixels array
+        int loadedRow = -1;
+        
+        // For each row of vertices...
+        for (int z = 0; z < depth; z++)
+        {
+            // Rows need to be taken from the image backwards to prevent the
+            // displacement map from being flipped horizontally when applied to
+            // the mesh.
+            int yPosition = (int)(ySpacing * (totalDepth - firstRow - z - 1));
+            
+            // As long as this row of pixels has not just been read...
+            if (yPosition != loadedRow)
+            {
+                // ...read it.
+                readster.getPixels(rowStart, yPosition, rowLength, 1,
+                        formster, rowPixels, 0, rowLength);
+                
+                loadedRow = yPosition;
+            }
+            
+            // The number of the first vertex in the row
+            int index = z * width;
+            
+            // For each vertex in the row...
+            for (int x = 0; x < width; x++)
+            {
+                // ...get the correct pixel.
+                int pixel = rowPixels[(int)(xSpacing * (firstColumn + x))
+                        - rowStart];
+                
+                reds[index] = (byte)(pixel >> RED_SHIFT);
+                greens[index] = (byte)(pixel >> GREEN_SHIFT);
+                blues[index] = (byte)pixel;
+                
+                index++;
+            }
+        }
+    }
+}
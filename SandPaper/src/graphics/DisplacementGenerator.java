@@ -0,0 +1,176 @@
+package graphics;
+
+import java.util.SplittableRandom;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelReader;
+
+/**
+ * Generates the displacement samples of a population's Individuals, each
+ * within the range of colors between 2 displacement maps.
+ * 
+ * Both maps are read only once, when the generator is created, taking the 2
+ * colors that bound each vertex. Generating the samples for an Individual after
+ * that is only a matter of picking a random value between the bounds of each
+ * channel of each vertex, which is written straight into a DisplacementBuffer,
+ * so neither an image nor any Color objects are needed. As nothing about a
+ * generator changes once it is created, it can be shared between threads.
+ * 
+ * @author George Tiersma
+ */
+public class DisplacementGenerator
+{
+    // The largest value that a color channel can have
+    private static final double CHANNEL_MAX = 255.0;
+    
+    // Bits that a pixel's ARGB value must be shifted to reach each channel
+    private static final byte RED_SHIFT = 16;
+    private static final byte GREEN_SHIFT = 8;
+    
+    // The bits of a pixel's ARGB value that hold a single channel
+    private static final int CHANNEL_MASK = 0xFF;
+    
+    // The width of the generated meshes in vertices
+    private int width;
+    // The depth of the generated meshes in vertices
+    private int depth;
+    
+    // The amounts (ranging 0.0 - 1.0) of each channel on each of the 2 maps
+    // that bound each vertex. The vertices are kept in the order that they are
+    // generated in: column by column, starting at the top of each column of
+    // the maps.
+    private double[] firstReds;
+    private double[] firstGreens;
+    private double[] firstBlues;
+    private double[] secondReds;
+    private double[] secondGreens;
+    private double[] secondBlues;
+    
+    /**
+     * CONSTRUCTOR
+     * 
+     * @param widthster The width of the generated meshes in vertices
+     * @param depthster The depth of the generated meshes in vertices
+     * @param firster The first displacement map bounding the range
+     * @param secondster The second displacement map bounding the range
+     */
+    public DisplacementGenerator(int widthster, int depthster, Image firster,
+            Image secondster)
+    {
+        width = widthster;
+        depth = depthster;
+        
+        firstReds = new double[width * depth];
+        firstGreens = new double[width * depth];
+        firstBlues = new double[width * depth];
+        secondReds = new double[width * depth];
+        secondGreens = new double[width * depth];
+        secondBlues = new double[width * depth];
+        
+        loadBounds(firster, firstReds, firstGreens, firstBlues);
+        loadBounds(secondster, secondReds, secondGreens, secondBlues);
+    }
+    
+    /**
+     * Generates the displacement samples for one mesh
+     * 
+     * @param ranster The random stream that the samples are generated from.
+     *                The same stream always gives the same samples.
+     * 
+     * @return The generated samples
+     */
+    public DisplacementBuffer generate(SplittableRandom ranster)
+    {
+        DisplacementBuffer samplester = new DisplacementBuffer(width, depth);
+        
+        // The number of the vertex being generated, in the order the bounds
+        // are kept in
+        int sample = 0;
+        
+        // For each column of vertices...
+        for (int x = 0; x < width; x++)
+        {
+            // ...and for each row of vertices, from the top of the maps...
+            for (int row = 0; row < depth; row++)
+            {
+                // ...pick the channels. The top of the maps is the mesh's last
+                // row, the same as when the samples are taken from a map.
+                int red = getRandomChannel(firstReds[sample],
+                        secondReds[sample], ranster);
+                int green = getRandomChannel(firstGreens[sample],
+                        secondGreens[sample], ranster);
+                int blue = getRandomChannel(firstBlues[sample],
+                        secondBlues[sample], ranster);
+                
+                samplester.setColor((depth - row - 1) * width + x, red, green,
+                        blue);
+                
+                sample++;
+            }
+        }
+        
+        return samplester;
+    }
+    
+    /**
+     * Gets a random channel value between 2 bounds
+     * 
+     * @param first One of the bounds (ranging 0.0 - 1.0)
+     * @param second The other bound (ranging 0.0 - 1.0)
+     * @param ranster The random stream the value is taken from
+     * 
+     * @return The channel value (ranging 0 - 255)
+     */
+    private int getRandomChannel(double first, double second,
+            SplittableRandom ranster)
+    {
+        double amount = ranster.nextDouble() * (second - first) + first;
+        
+        return (int)Math.round(amount * CHANNEL_MAX);
+    }
+    
+    /**
+     * Reads the pixel of a displacement map that bounds each vertex
+     * 
+     * @param mapster The displacement map
+     * @param reds The array to fill with the red amount for each vertex
+     * @param greens The array to fill with the green amount for each vertex
+     * @param blues The array to fill with the blue amount for each vertex
+     */
+    private void loadBounds(Image mapster, double[] reds, double[] greens,
+            double[] blues)
+    {
+        PixelReader readster = mapster.getPixelReader();
+        
+        int mapWidth = (int)mapster.getWidth();
+        int mapHeight = (int)mapster.getHeight();
+        
+        // The distance in pixels between each vertex
+        double xSpacing = mapster.getWidth() / width;
+        double ySpacing = mapster.getHeight() / depth;
+        
+        int sample = 0;
+        
+        for (int x = 0; x < width; x++)
+        {
+            // When casting the pixel positions into an integer type, there's
+            // a possibility that they may be rounded up to match the size of
+            // the map, putting them out-of-bounds
+            int pixelX = Math.min((int)(xSpacing * x), mapWidth - 1);
+            
+            for (int row = 0; row < depth; row++)
+            {
+                int pixelY = Math.min((int)(ySpacing * row), mapHeight - 1);
+                
+                int pixel = readster.getArgb(pixelX, pixelY);
+                
+                reds[sample] = ((pixel >> RED_SHIFT) & CHANNEL_MASK)
+                        / CHANNEL_MAX;
+                greens[sample] = ((pixel >> GREEN_SHIFT) & CHANNEL_MASK)
+                        / CHANNEL_MAX;
+                blues[sample] = (pixel & CHANNEL_MASK) / CHANNEL_MAX;
+                
+                sample++;
+            }
+        }
+    }
+}
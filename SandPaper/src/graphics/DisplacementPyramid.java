@@ -0,0 +1,310 @@
+package graphics;
+
+import java.nio.IntBuffer;
+import java.util.Map;
+import java.util.WeakHashMap;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritablePixelFormat;
+
+/**
+ * Smaller and smaller copies of a displacement map, each half the width and
+ * height of the one before it, with every pixel being the average of the 4
+ * pixels it covers in the larger copy.
+ * 
+ * When a mesh has far fewer vertices than the map has pixels, its vertices can
+ * be sampled from the copy closest to the mesh's size instead of from the full
+ * map. This keeps small meshes from picking up noise from single pixels, and
+ * keeps the cost of sampling in line with the size of the mesh rather than the
+ * size of the map.
+ * 
+ * Level 0 is the map itself, which is read straight from the image. Only the
+ * smaller levels are stored here. Each map's pyramid is built once and kept for
+ * as long as the map is in use.
+ * 
+ * @author George Tiersma
+ */
+public class DisplacementPyramid
+{
+    // Bits that a pixel's ARGB value must be shifted to reach each channel
+    private static final byte RED_SHIFT = 16;
+    private static final byte GREEN_SHIFT = 8;
+    
+    // The pyramids that have been built, for each map. A pyramid is let go of
+    // once its map is no longer used anywhere else.
+    private static final Map<Image, DisplacementPyramid> PYRAMIDS
+            = new WeakHashMap<>();
+    
+    // The width and height in pixels of each level
+    private int[] widths;
+    private int[] heights;
+    
+    // The red, green and blue amounts of each pixel in each level. The pixels
+    // are numbered left to right, top to bottom. Level 0 is left empty, as it
+    // is read from the map itself.
+    private byte[][] reds;
+    private byte[][] greens;
+    private byte[][] blues;
+    
+    /**
+     * CONSTRUCTOR
+     * 
+     * @param dister The displacement map
+     */
+    private DisplacementPyramid(Image dister)
+    {
+        // The number of levels needed for the map to be halved down to a
+        // single pixel
+        int levels = 1;
+        
+        for (int size = (int)Math.max(dister.getWidth(), dister.getHeight());
+                size > 1; size = (size + 1) / 2)
+        {
+            levels++;
+        }
+        
+        widths = new int[levels];
+        heights = new int[levels];
+        
+        reds = new byte[levels][];
+        greens = new byte[levels][];
+        blues = new byte[levels][];
+        
+        widths[0] = (int)dister.getWidth();
+        heights[0] = (int)dister.getHeight();
+        
+        if (levels > 1)
+        {
+            loadFirstLevel(dister);
+            
+            for (int i = 2; i < levels; i++)
+            {
+                loadLevel(i);
+            }
+        }
+    }
+    
+    /**
+     * Creates the arrays for a level half the size of the one before it
+     * 
+     * @param level The level
+     */
+    private void createLevel(int level)
+    {
+        widths[level] = (widths[level - 1] + 1) / 2;
+        heights[level] = (heights[level - 1] + 1) / 2;
+        
+        reds[level] = new byte[widths[level] * heights[level]];
+        greens[level] = new byte[widths[level] * heights[level]];
+        blues[level] = new byte[widths[level] * heights[level]];
+    }
+    
+    /**
+     * Gets the pyramid for a displacement map, building it the first time it is
+     * asked for
+     * 
+     * @param dister The displacement map
+     * 
+     * @return The map's pyramid
+     */
+    public static synchronized DisplacementPyramid get(Image dister)
+    {
+        DisplacementPyramid pyramid = PYRAMIDS.get(dister);
+        
+        if (pyramid == null)
+        {
+            pyramid = new DisplacementPyramid(dister);
+            
+            PYRAMIDS.put(dister, pyramid);
+        }
+        
+        return pyramid;
+    }
+    
+    /**
+     * Gets the blue amounts of the pixels in a level
+     * 
+     * @param level The level (1 or greater)
+     * 
+     * @return The blue amount of each pixel
+     */
+    public byte[] getBlues(int level)
+    {
+        return blues[level];
+    }
+    
+    /**
+     * Gets the green amounts of the pixels in a level
+     * 
+     * @param level The level (1 or greater)
+     * 
+     * @return The green amount of each pixel
+     */
+    public byte[] getGreens(int level)
+    {
+        return greens[level];
+    }
+    
+    /**
+     * Gets the height of a level
+     * 
+     * @param level The level
+     * 
+     * @return The level's height in pixels
+     */
+    public int getHeight(int level)
+    {
+        return heights[level];
+    }
+    
+    /**
+     * Gets the level that vertices spaced a certain number of pixels apart on
+     * the full map should be sampled from. Each pixel in that level covers no
+     * more of the map than the space between 2 vertices.
+     * 
+     * @param spacing The distance in pixels between each vertex on the map
+     * 
+     * @return The level to be sampled from
+     */
+    public static int getLevel(double spacing)
+    {
+        int level = 0;
+        
+        while (spacing >= 2)
+        {
+            spacing = spacing / 2;
+            level++;
+        }
+        
+        return level;
+    }
+    
+    /**
+     * Gets the red amounts of the pixels in a level
+     * 
+     * @param level The level (1 or greater)
+     * 
+     * @return The red amount of each pixel
+     */
+    public byte[] getReds(int level)
+    {
+        return reds[level];
+    }
+    
+    /**
+     * Gets the width of a level
+     * 
+     * @param level The level
+     * 
+     * @return The level's width in pixels
+     */
+    public int getWidth(int level)
+    {
+        return widths[level];
+    }
+    
+    /**
+     * Averages the map's pixels into level 1. The map is read 2 rows at a
+     * time, so the full map never needs to be copied.
+     * 
+     * @param dister The displacement map
+     */
+    private void loadFirstLevel(Image dister)
+    {
+        createLevel(1);
+        
+        PixelReader readster = dister.getPixelReader();
+        WritablePixelFormat<IntBuffer> formster
+                = PixelFormat.getIntArgbInstance();
+        
+        int mapWidth = widths[0];
+        int mapHeight = heights[0];
+        
+        // The colors of the 2 rows of pixels being averaged
+        int[] rowPixels = new int[mapWidth * 2];
+        
+        for (int y = 0; y < heights[1]; y++)
+        {
+            // The last level 1 row of a map with an odd height only covers 1
+            // row of the map
+            int rows = Math.min(2, mapHeight - y * 2);
+            
+            readster.getPixels(0, y * 2, mapWidth, rows, formster, rowPixels,
+                    0, mapWidth);
+            
+            for (int x = 0; x < widths[1]; x++)
+            {
+                int columns = Math.min(2, mapWidth - x * 2);
+                
+                int red = 0;
+                int green = 0;
+                int blue = 0;
+                
+                for (int j = 0; j < rows; j++)
+                {
+                    for (int i = 0; i < columns; i++)
+                    {
+                        int pixel = rowPixels[j * mapWidth + x * 2 + i];
+                        
+                        red = red + (pixel >> RED_SHIFT & 0xFF);
+                        green = green + (pixel >> GREEN_SHIFT & 0xFF);
+                        blue = blue + (pixel & 0xFF);
+                    }
+                }
+                
+                int index = y * widths[1] + x;
+                int count = rows * columns;
+                
+                reds[1][index] = (byte)((red + count / 2) / count);
+                greens[1][index] = (byte)((green + count / 2) / count);
+                blues[1][index] = (byte)((blue + count / 2) / count);
+            }
+        }
+    }
+    
+    /**
+     * Averages the pixels of the level before into a level
+     * 
+     * @param level The level (2 or greater)
+     */
+    private void loadLevel(int level)
+    {
+        createLevel(level);
+        
+        int beforeWidth = widths[level - 1];
+        int beforeHeight = heights[level - 1];
+        
+        byte[][] channels = {reds[level - 1], greens[level - 1],
+            blues[level - 1]};
+        byte[][] averages = {reds[level], greens[level], blues[level]};
+        
+        for (int y = 0; y < heights[level]; y++)
+        {
+            int rows = Math.min(2, beforeHeight - y * 2);
+            
+            for (int x = 0; x < widths[level]; x++)
+            {
+                int columns = Math.min(2, beforeWidth - x * 2);
+                int count = rows * columns;
+                
+                for (byte c = 0; c < channels.length; c++)
+                {
+                    int total = 0;
+                    
+                    for (int j = 0; j < rows; j++)
+                    {
+                        for (int i = 0; i < columns; i++)
+                        {
+                            total = total + (channels[c][(y * 2 + j)
+                                    * beforeWidth + x * 2 + i] & 0xFF);
+                        }
+                    }
+                    
+                    averages[c][y * widths[level] + x]
+                            = (byte)((total + count / 2) / count);
+                }
+            }
+        }
+    }
+}
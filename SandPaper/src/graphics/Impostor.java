@@ -0,0 +1,127 @@
+package graphics;
+
+import javafx.geometry.Bounds;
+import javafx.scene.AmbientLight;
+import javafx.scene.Group;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.PhongMaterial;
+import javafx.scene.shape.MeshView;
+import javafx.scene.shape.TriangleMesh;
+import javafx.scene.transform.Rotate;
+
+/**
+ * A flat stand-in for an Individual's mesh, shown in its place when the
+ * Individual is too far from the camera for its detail to be seen.
+ * 
+ * The Individuals of a population are always turned to face the camera, so
+ * the camera only ever sees their meshes from one side. The mesh is rendered
+ * once from that side into a small image, which is put on a single quad lying
+ * across the middle of the mesh. The quad is shown in the same view as the
+ * mesh, so it is placed, stretched and turned just as the mesh was.
+ * 
+ * @author George Tiersma
+ */
+public class Impostor
+{
+    // Turns a mesh the way that facing the camera does, so that it is
+    // rendered from the side the camera sees
+    private static final double FACING_ANGLE = 90;
+    
+    // Both sides of the quad are given faces, so whichever side faces the
+    // camera is shown
+    private static final int[] FACES = {0, 0, 2, 2, 1, 1, 1, 1, 2, 2, 3, 3,
+            0, 0, 1, 1, 2, 2, 1, 1, 3, 3, 2, 2};
+    
+    // Where each corner of the quad is on the rendered image
+    private static final float[] TEXTURE_POSITIONS = {0, 1, 1, 1, 0, 0, 1, 0};
+    
+    // The quad
+    private TriangleMesh quad;
+    
+    // Holds the rendered image of the mesh
+    private PhongMaterial material;
+    
+    /**
+     * CONSTRUCTOR
+     * 
+     * Renders the mesh shown by a view. This must be done from the JavaFX
+     * application thread.
+     * 
+     * @param viewster The view of the mesh to be stood in for
+     */
+    public Impostor(MeshView viewster)
+    {
+        // The mesh is rendered in a view of its own, so the one given is left
+        // where it is
+        MeshView posester = new MeshView(viewster.getMesh());
+        posester.setMaterial(viewster.getMaterial());
+        
+        // The mesh is lit evenly, so the image holds only its colors. The
+        // quad is lit by the preview's lights in its place.
+        Group setster = new Group(posester, new AmbientLight(Color.WHITE));
+        
+        SnapshotParameters paramster = new SnapshotParameters();
+        paramster.setDepthBuffer(true);
+        paramster.setFill(Color.TRANSPARENT);
+        paramster.setTransform(new Rotate(FACING_ANGLE, Rotate.X_AXIS));
+        
+        Image imster = setster.snapshot(paramster, null);
+        
+        material = new PhongMaterial();
+        material.setDiffuseMap(imster);
+        
+        quad = createQuad(posester.getBoundsInLocal());
+    }
+    
+    /**
+     * Creates the quad that the image is shown on
+     * 
+     * @param boundster The bounds of the mesh in its own coordinates
+     * 
+     * @return The quad
+     */
+    private TriangleMesh createQuad(Bounds boundster)
+    {
+        // The quad lies across the middle of the mesh's depth from the camera
+        float middle = (float)((boundster.getMinY() + boundster.getMaxY())
+                / 2);
+        
+        float left = (float)boundster.getMinX();
+        float right = (float)boundster.getMaxX();
+        
+        // The mesh's z axis runs up the rendered image
+        float bottom = (float)boundster.getMinZ();
+        float top = (float)boundster.getMaxZ();
+        
+        TriangleMesh meshster = new TriangleMesh();
+        
+        meshster.getPoints().setAll(left, middle, bottom, right, middle,
+                bottom, left, middle, top, right, middle, top);
+        meshster.getTexCoords().setAll(TEXTURE_POSITIONS);
+        meshster.getFaces().setAll(FACES);
+        
+        return meshster;
+    }
+    
+    /**
+     * Gets the material holding the rendered image of the mesh
+     * 
+     * @return The material
+     */
+    public PhongMaterial getMaterial()
+    {
+        return material;
+    }
+    
+    /**
+     * Gets the quad that the rendered image of the mesh is shown on
+     * 
+     * @return The quad
+     */
+    public TriangleMesh getMesh()
+    {
+        return quad;
+    }
+}
@@ -1,7 +1,10 @@
 package graphics;
 
-import javafx.scene.image.Image;
+import javafx.geometry.Point3D;
 import javafx.scene.transform.Rotate;
+import javafx.scene.transform.Scale;
+import javafx.scene.transform.Transform;
+import javafx.scene.transform.Translate;
 
 /**
  * A single mesh within a population
@@ -10,9 +13,6 @@ import javafx.scene.transform.Rotate;
  */
 public class Individual extends MeshObject
 {
-    // Added to the X rotation to ensure the Individual is facing the camera
-    final private short BASE_X_ROTATION = 90;
-    
     // How much the Individual should be shifted
     private byte shiftX;
     private byte shiftY;
@@ -29,9 +29,23 @@ public class Individual extends MeshObject
     private float y;
     private float z;
     
-    // Rotations used to keep the mesh facing forward with all camera positions
-    private Rotate xRotate;
-    private Rotate yRotate;
+    // Moves the mesh back from the point it pivots on once it has been turned
+    // to face the camera. The rotations themselves are shared by the whole
+    // population, so only this is the Individual's own.
+    private Translate unpivot;
+    
+    // Stretches a shared mesh from the size it was built at to this
+    // Individual's size
+    private Scale scalster;
+    
+    // The Individual whose mesh and material this one shows. Null if this
+    // Individual has a mesh of its own.
+    private Individual variant;
+    
+    // The flat stand-in for this Individual's own mesh that the Individuals
+    // sharing it show when they are far from the camera. Null until it is
+    // rendered.
+    private Impostor impostor;
     
     /**
      * CONSTRUCTOR
@@ -43,8 +57,6 @@ public class Individual extends MeshObject
      * @param fHeight The height of each face in the mesh when not displaced
      * @param widthster The width of the mesh in vertices
      * @param heightster The depth of the mesh in vertices
-     * @param xRot How much the camera is rotated on the x scale
-     * @param yRot How much the camera is rotated on the y scale
      * @param strengthster The multiplier for the displacement map that is set
      *                     by the user
      * @param eckster The x position of the vertex point on the terrain of where
@@ -53,14 +65,15 @@ public class Individual extends MeshObject
                 this mesh will be placed
      * @param zeester The z position of the vertex point on the terrain of where
                 this mesh will be placed
-     * @param dister The displacement map
+     * @param samplester The generated displacement samples for each vertex
      */
     public Individual(byte xShift, byte yShift, byte zShift, short fWidth,
-            short fHeight, short widthster, short heightster, short xRot,
-            short yRot, int strengthster, float eckster, float whyster,
-            float zeester, Image dister)
+            short fHeight, short widthster, short heightster,
+            int strengthster, float eckster, float whyster, float zeester,
+            DisplacementBuffer samplester)
     {
-        super(fWidth, fHeight, widthster, heightster, strengthster, dister);
+        super(fWidth, fHeight, widthster, heightster, strengthster,
+                samplester);
         
         shiftX = xShift;
         shiftY = yShift;
@@ -72,93 +85,138 @@ public class Individual extends MeshObject
         y = whyster;
         z = zeester;
         
-        // Rotational values are made negative to rotate correctly
-        xRotate = new Rotate(BASE_X_ROTATION - xRot, Rotate.X_AXIS);
-        yRotate = new Rotate(-yRot, Rotate.Y_AXIS);
+        unpivot = new Translate();
+        
+        impostor = null;
     }
     
     /**
-     * Gets the position of a vertex on either the x, y, or z scale taking into
-     * consideration how far the displacement map should shift it.
+     * CONSTRUCTOR
      * 
-     * Used as a faster alternative for Individual generation than the
-     * VertexThread class
+     * For an Individual that shows the mesh and material of another one
+     * instead of having its own. Only its position, shift and size are its
+     * own.
      * 
-     * @param vertexX The vertex's row
-     * @param vertexZ The vertex's column
-     * @param dimension The dimension to which the value being returned is to be
-                        used to shift the vertex.
-                        For example, a value of 'x' would mean that the value
-                        being returned should be applied to the vertex's x
-                        position.
+     * @param varister The Individual whose mesh and material are shown. It
+     *                 must have been loaded.
+     * @param xShift How much the mesh should be shifted on the x scale
+     * @param yShift How much the mesh should be shifted on the y scale
+     * @param zShift How much the mesh should be shifted on the z scale
+     * @param fWidth The width of each face in the mesh when not displaced
+     * @param fHeight The height of each face in the mesh when not displaced
+     * @param eckster The x position of the vertex point on the terrain of where
+                this mesh will be placed
+     * @param whyster The y position of the vertex point on the terrain of where
+                this mesh will be placed
+     * @param zeester The z position of the vertex point on the terrain of where
+                this mesh will be placed
+     */
+    public Individual(Individual varister, byte xShift, byte yShift,
+            byte zShift, short fWidth, short fHeight, float eckster,
+            float whyster, float zeester)
+    {
+        super(varister);
+        
+        variant = varister;
+        
+        shiftX = xShift;
+        shiftY = yShift;
+        shiftZ = zShift;
+        
+        // The faces are stretched from the size the shared mesh was built at
+        faceWidth = fWidth;
+        faceDepth = fHeight;
+        
+        scalster = new Scale((double)faceWidth / variant.faceWidth, 1,
+                (double)faceDepth / variant.faceDepth);
+        
+        halfStrength = displacementStrength / 2;
+        
+        x = eckster;
+        y = whyster;
+        z = zeester;
+        
+        unpivot = new Translate();
+        
+        impostor = null;
+    }
+    
+    /**
+     * Writes the positions of this Individual's vertices, as they are placed in
+     * the population by its position, shift, size and rotation, into an array
      * 
-     * @return The vertex's position
+     * @param pointster The array to write the positions to
+     * @param index The index in the array that the first position is to be
+     *              written to
      */
-    private int getRelativePositioning(byte vertexX, byte vertexZ,
-            char dimension)
+    public void bakePoints(float[] pointster, int index)
     {
-        // The center value for a color value's range (which is 0.0 - 1.0)
-        final double MIDDLE_COLOR = 0.5;
+        Transform transter = viewster.getLocalToParentTransform();
         
-        // How far the vertex should be shifted. It may be negative.
-        short shiftAmount;
+        double mxx = transter.getMxx();
+        double mxy = transter.getMxy();
+        double mxz = transter.getMxz();
+        double myx = transter.getMyx();
+        double myy = transter.getMyy();
+        double myz = transter.getMyz();
+        double mzx = transter.getMzx();
+        double mzy = transter.getMzy();
+        double mzz = transter.getMzz();
         
-        // The position of the vertex if no displacement map was applied
-        int originalPosition;
+        double tx = transter.getTx();
+        double ty = transter.getTy();
+        double tz = transter.getTz();
         
-        // The new position of the vertex
-        int vertexPosition = 0;
+        float[] meshPoints = points;
         
-        switch (dimension)
+        // If the point data was released, it is read back from the mesh
+        if (meshPoints == null)
         {
-            // If the x position is being retrieved...
-            case 'x':
-                
-                // ...get the red amount in the correct pixel.
-                double redAmount
-                        = vertexRelatives[vertexX][vertexZ].getRed();
-                
-                originalPosition = vertexX * faceWidth;
-                
-                // Calculate the amount to be shifted
-                shiftAmount = (short)((redAmount - MIDDLE_COLOR)
-                        * -displacementStrength);
-                
-                vertexPosition = originalPosition + shiftAmount;
-                
-                break;
-                
-            // If the y position is being retrieved...
-            case 'y':
-                
-                // ...get the green amount in the correct pixel.
-                double greenAmount
-                        = vertexRelatives[vertexX][vertexZ].getGreen();
-                
-                vertexPosition = (int)((greenAmount - MIDDLE_COLOR)
-                        * -displacementStrength);
-                
-                break;
-                
-            // If the z position is being retrieved...
-            case 'z':
-                
-                // ...get the blue amount in the correct pixel.
-                double blueAmount
-                        = vertexRelatives[vertexX][vertexZ].getBlue();
-                
-                originalPosition = vertexZ * faceDepth;
-                
-                // Calculate the amount to be shifted
-                shiftAmount = (short)((blueAmount - MIDDLE_COLOR) 
-                        * -displacementStrength);
-                
-                vertexPosition = originalPosition + shiftAmount;
-                
-                break;
+            meshPoints = meshster.getPoints().toArray(null);
         }
         
-        return vertexPosition;
+        // For each vertex in the mesh...
+        for (int i = 0; i < meshPoints.length; i = i + DIMENSIONS)
+        {
+            float px = meshPoints[i];
+            float py = meshPoints[i + 1];
+            float pz = meshPoints[i + 2];
+            
+            // ...move it to where it is shown.
+            pointster[index + i] = (float)(mxx * px + mxy * py + mxz * pz + tx);
+            pointster[index + i + 1]
+                    = (float)(myx * px + myy * py + myz * pz + ty);
+            pointster[index + i + 2]
+                    = (float)(mzx * px + mzy * py + mzz * pz + tz);
+        }
+    }
+    
+    /**
+     * Gets the transform that places this Individual's vertices where they are
+     * shown
+     * 
+     * @return The transform from the mesh's space to the population's
+     */
+    public Transform getPlacement()
+    {
+        return viewster.getLocalToParentTransform();
+    }
+    
+    /**
+     * Gets roughly how large the Individual appears on the screen
+     * 
+     * @param eye The camera's eye in the population's coordinates
+     * @param focalLength The camera's distance (in pixels) from the screen
+     * 
+     * @return The length (in pixels) of the Individual's longest side on the
+     *         screen
+     */
+    public double getScreenSize(Point3D eye, double focalLength)
+    {
+        double size = Math.max((width - 1) * faceWidth,
+                (depth - 1) * faceDepth);
+        
+        return size * focalLength / eye.distance(x, y, z);
     }
     
     /**
@@ -180,6 +238,19 @@ public class Individual extends MeshObject
         return halfFaceWidth;
     }
     
+    /**
+     * Gets the strength that the displacement map is actually applied with when
+     * calculating the positions of the vertices. Unlike the terrain, an
+     * Individual's displacement strength is not multiplied.
+     * 
+     * @return The strength the vertices are displaced with
+     */
+    @Override
+    protected int getVertexStrength()
+    {
+        return displacementStrength;
+    }
+    
     /**
      * Loads the data needed to construct the mesh into most of the variables
      * and objects within this Individual object
@@ -187,52 +258,26 @@ public class Individual extends MeshObject
     @Override
     public void load()
     {
-        super.load();
+        // An Individual showing another's mesh has nothing of its own to load
+        if (variant == null)
+        {
+            super.load();
+        }
         
-        reposition();
+        // The position relies on the pivot
         prepareRotations();
+        reposition();
     }
     
     /**
-     * Calculates the positions of the Individual's vertices and loads them into
-     * the Individual.
-     * 
-     * The overridden function utilizes threads, which seems to harm performance
-     * when generating Individuals.
+     * Renders the impostor for this Individual's own mesh, so that the
+     * Individuals sharing the mesh can show it when they are far from the
+     * camera. It must be rendered again whenever the mesh changes. This must
+     * be done from the JavaFX application thread.
      */
-    @Override
-    public void loadPoints()
+    public void prepareImpostor()
     {
-        // The index to which a value is currently being assigned
-        int index = 0;
-        
-        // For each column of vertices in the mesh...
-        for (byte i = 0; i < depth; i++)
-        {
-            // ...and for each row of vertices...
-            for (byte j = 0; j < width; j++)
-            {
-                // ...get the x position.
-                points[index] = getRelativePositioning(j, i, 'x');
-                
-                index++;
-                
-                // Get the y position
-                points[index] = getRelativePositioning(j, i, 'y');
-                
-                index++;
-                
-                // Get the z position
-                points[index] = getRelativePositioning(j, i, 'z');
-                
-                index++;
-            }
-        }
-        
-        // Clear any points that may already be in the mesh
-        meshster.getPoints().clear();
-        // Add the new points
-        meshster.getPoints().addAll(points);
+        impostor = new Impostor(viewster);
     }
     
     /**
@@ -245,27 +290,29 @@ public class Individual extends MeshObject
         // Formula to calculate the correct pivot point on the x axis
         double pivotX = faceWidth * halfFaceWidth - halfStrength;
         
-        xRotate.setPivotX(pivotX);
-        xRotate.setPivotY(-halfStrength);
-        xRotate.setPivotZ(-halfStrength);
-        
-        yRotate.setPivotX(pivotX);
-        yRotate.setPivotY(-halfStrength);
-        yRotate.setPivotZ(-halfStrength);
+        unpivot.setX(-pivotX);
+        unpivot.setY(halfStrength);
+        unpivot.setZ(halfStrength);
     }
     
     /**
      * Loads the data needed to construct the mesh into most of the variables
-     * and objects within this Individual object
+     * and objects within this Individual object. The rotations that face the
+     * camera are only added once the population gives them.
      */
     private void prepareRotations()
     {
         preparePivotPoints();
         
-        // yRotate must be added first. Otherwise, this won't work for some
-        // reason
-        viewster.getTransforms().add(yRotate);
-        viewster.getTransforms().add(xRotate);
+        viewster.getTransforms().add(unpivot);
+        
+        // If the mesh is shared...
+        if (variant != null)
+        {
+            // ...it is stretched to this Individual's size before it is
+            // rotated.
+            viewster.getTransforms().add(scalster);
+        }
     }
     
     /**
@@ -278,9 +325,12 @@ public class Individual extends MeshObject
         // same position regardless of how wide it is.
         double halfWidth = getHalfFaceWidth() * faceWidth;
         
-        viewster.setTranslateX(x + shiftX + halfStrength - halfWidth);
-        viewster.setTranslateY(y + shiftY + halfStrength);
-        viewster.setTranslateZ(z + shiftZ + halfStrength);
+        // The mesh is turned about its pivot, so it is moved onto the pivot
+        // here and moved back from it after it is turned
+        viewster.setTranslateX(x + shiftX + halfStrength - halfWidth
+                - unpivot.getX());
+        viewster.setTranslateY(y + shiftY + halfStrength - unpivot.getY());
+        viewster.setTranslateZ(z + shiftZ + halfStrength - unpivot.getZ());
     }
     
     /**
@@ -303,40 +353,169 @@ public class Individual extends MeshObject
     }
     
     /**
-     * Sets how much this Individual should be shifted from the terrain's vertex
-     * that it was positioned at
+     * Changes the number of vertices in the Individual's own mesh along with
+     * the displacement samples, rebuilding the mesh only once
      * 
-     * @param xShift How much the Individual is to be shifted on the x scale
-     * @param yShift How much the Individual is to be shifted on the y scale
-     * @param zShift How much the Individual is to be shifted on the z scale
+     * @param widthster The width of the mesh in vertices
+     * @param heightster The height of the mesh in vertices
+     * @param samplester The generated displacement samples for the new size
      */
-    public void setShift(byte xShift, byte yShift, byte zShift)
+    public void reshape(short widthster, short heightster,
+            DisplacementBuffer samplester)
     {
-        shiftX = xShift;
-        shiftY = yShift;
-        shiftZ = zShift;
+        beginEdit();
+        
+        setWidth(widthster);
+        setDepth(heightster);
+        setDisplacementSamples(samplester);
+        
+        commitEdit();
+        
+        // The pivots and position both rely on the width of the mesh
+        preparePivotPoints();
+        reposition();
+    }
+    
+    /**
+     * Takes up the shape of the mesh this Individual shares after the
+     * Individual it shares it with has been reshaped
+     */
+    public void reshare()
+    {
+        loadShared(variant);
+        
+        halfStrength = displacementStrength / 2;
+        
+        preparePivotPoints();
+        reposition();
+    }
+    
+    /**
+     * Sets the strength of the displacement map. The Individual keeps its
+     * displacement map; only the amount its vertices are displaced by changes.
+     * 
+     * @param strengthster The strength of the displacement map
+     */
+    @Override
+    public void setDisplacementStrength(int strengthster)
+    {
+        // If this Individual has its own mesh...
+        if (variant == null)
+        {
+            // ...its vertices are moved.
+            super.setDisplacementStrength(strengthster);
+        }
+        // ...otherwise...
+        else
+        {
+            // ...the shared mesh is only rebuilt by the first of the
+            // Individuals sharing it to be changed.
+            if (variant.displacementStrength != strengthster)
+            {
+                variant.setDisplacementStrength(strengthster);
+            }
+            
+            displacementStrength = strengthster;
+        }
         
+        halfStrength = displacementStrength / 2;
+        
+        // The pivots and position both rely on half of the strength
+        preparePivotPoints();
         reposition();
     }
     
     /**
-     * Sets how much the Individual should be rotated on the x scale
+     * Sets the size of each face on the Individual. The Individual keeps its
+     * displacement map and position.
+     * 
+     * @param fWidth The width of each face
+     * @param fHeight The height of each face
+     */
+    @Override
+    public void setFaceSize(short fWidth, short fHeight)
+    {
+        // If this Individual has its own mesh...
+        if (variant == null)
+        {
+            // ...its vertices are moved.
+            super.setFaceSize(fWidth, fHeight);
+        }
+        // ...otherwise...
+        else
+        {
+            // ...the shared mesh is stretched differently.
+            faceWidth = fWidth;
+            faceDepth = fHeight;
+            
+            scalster.setX((double)faceWidth / variant.faceWidth);
+            scalster.setZ((double)faceDepth / variant.faceDepth);
+        }
+        
+        // The pivots and position both rely on the size of the faces
+        preparePivotPoints();
+        reposition();
+    }
+    
+    /**
+     * Turns the Individual with the rotations that keep its population facing
+     * the camera. The rotations are shared, so turning them turns every
+     * Individual they were given to. This must be done from the JavaFX
+     * application thread.
+     * 
+     * @param facingX The rotation on the x axis
+     * @param facingY The rotation on the y axis
+     */
+    public void setFacing(Rotate facingX, Rotate facingY)
+    {
+        // The y rotation must be applied first, and both are applied about the
+        // pivot
+        viewster.getTransforms().remove(facingY);
+        viewster.getTransforms().remove(facingX);
+        viewster.getTransforms().add(0, facingX);
+        viewster.getTransforms().add(0, facingY);
+    }
+    
+    /**
+     * Sets whether the Individual is shown by the impostor of the mesh it
+     * shares instead of by the mesh itself. An Individual with a mesh of its
+     * own, or whose shared mesh has no impostor, is always shown by its mesh.
      * 
-     * @param angle How much the camera is set to be rotated on the x scale
+     * @param shown Whether or not the impostor should be shown
      */
-    public void setRotationX(short angle)
+    public void setImpostorShown(boolean shown)
     {
-        xRotate.setAngle(BASE_X_ROTATION - angle);
+        // If the impostor should be shown and there is one...
+        if (shown && variant != null && variant.impostor != null)
+        {
+            // ...it takes the mesh's place in the view.
+            viewster.setMesh(variant.impostor.getMesh());
+            viewster.setMaterial(variant.impostor.getMaterial());
+        }
+        // ...otherwise...
+        else
+        {
+            // ...the mesh is shown.
+            viewster.setMesh(meshster);
+            viewster.setMaterial(texture);
+        }
     }
     
     /**
-     * Sets how much the Individual should be rotated on the y scale
+     * Sets how much this Individual should be shifted from the terrain's vertex
+     * that it was positioned at
      * 
-     * @param angle How much the camera is set to be rotated on the y scale
+     * @param xShift How much the Individual is to be shifted on the x scale
+     * @param yShift How much the Individual is to be shifted on the y scale
+     * @param zShift How much the Individual is to be shifted on the z scale
      */
-    public void setRotationY(short angle)
+    public void setShift(byte xShift, byte yShift, byte zShift)
     {
-        yRotate.setAngle(-angle);
+        shiftX = xShift;
+        shiftY = yShift;
+        shiftZ = zShift;
+        
+        reposition();
     }
     
     /**
@@ -357,8 +536,8 @@ public class Individual extends MeshObject
         stringster = stringster + "Shift: " + shiftX + "," + shiftY + ","
                 + shiftZ + "\n\n";
         
-        stringster = stringster + "X axis rotation: " + xRotate.getAngle();
-        stringster = stringster + "Y axis rotation: " + yRotate.getAngle();
+        stringster = stringster + "Pivot offset: " + -unpivot.getX() + ","
+                + -unpivot.getY() + "," + -unpivot.getZ() + "\n";
         
         return stringster;
     }
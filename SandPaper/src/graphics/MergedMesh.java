@@ -0,0 +1,234 @@
+package graphics;
+
+import javafx.scene.paint.PhongMaterial;
+import javafx.scene.shape.DrawMode;
+import javafx.scene.shape.MeshView;
+import javafx.scene.shape.TriangleMesh;
+import javafx.scene.transform.Transform;
+
+/**
+ * A number of a population's Individuals baked into a single mesh, so that they
+ * are shown by 1 node rather than 1 node each.
+ * 
+ * The Individuals' vertices are stored in the mesh where they are shown, so the
+ * mesh must be re-baked whenever an Individual is moved, sized, rotated or
+ * re-shaped. Only the Individuals whose placement changed since the mesh was
+ * last baked are re-written into it.
+ * 
+ * @author George Tiersma
+ */
+public class MergedMesh
+{
+    // The number of dimensions
+    private static final byte DIMENSIONS = 3;
+    // The number of ints in the face array that define each face
+    private static final byte INTS_PER_FACE = 6;
+    // The number of values in a transform's matrix that place a vertex
+    private static final byte MATRIX_VALUES = 12;
+    
+    // The number of vertices in each Individual
+    private int memberVertices;
+    
+    // The placements of each Individual when the mesh was last baked. There are
+    // 12 values for each Individual.
+    private double[] placements;
+    
+    // Point data for every Individual, 1 after the other
+    private float[] points;
+    
+    // The Individuals in the mesh
+    private Individual[] members;
+    
+    // The mesh
+    private TriangleMesh meshster;
+    
+    // The view containing the mesh
+    private MeshView viewster;
+    
+    // Pushes the point, UV and face data into the mesh
+    private MeshUploader uploader;
+    
+    /**
+     * CONSTRUCTOR
+     * 
+     * @param memster The Individuals to be merged. They must all be the same
+     *                size and have been loaded.
+     * @param memberWidth The width of each Individual in vertices
+     * @param memberDepth The depth of each Individual in vertices
+     * @param texster The material for the merged mesh
+     */
+    public MergedMesh(Individual[] memster, short memberWidth,
+            short memberDepth, PhongMaterial texster)
+    {
+        members = memster;
+        
+        memberVertices = memberWidth * memberDepth;
+        
+        placements = new double[members.length * MATRIX_VALUES];
+        
+        points = new float[members.length * memberVertices * DIMENSIONS];
+        
+        meshster = new TriangleMesh();
+        
+        viewster = new MeshView(meshster);
+        viewster.setDrawMode(DrawMode.FILL);
+        viewster.setMaterial(texster);
+        
+        uploader = new MeshUploader();
+        
+        // Every Individual is mapped the same way, so they all share the UV
+        // data of a single Individual
+        uploader.uploadTexCoords(meshster, TopologyCache.getTexturePositions(
+                memberWidth, memberDepth));
+        
+        loadFaces(TopologyCache.getFaces(memberWidth, memberDepth));
+        
+        bake();
+    }
+    
+    /**
+     * Re-bakes every Individual into the mesh. Used when the shapes of the
+     * Individuals have changed, rather than only their placements.
+     */
+    public void bake()
+    {
+        for (int i = 0; i < members.length; i++)
+        {
+            bakeMember(i, members[i].getPlacement());
+        }
+        
+        uploader.uploadPoints(meshster, points);
+    }
+    
+    /**
+     * Bakes a single Individual's vertices into the point array
+     * 
+     * @param index The index of the Individual in the mesh
+     * @param transter The Individual's current placement
+     */
+    private void bakeMember(int index, Transform transter)
+    {
+        int first = index * MATRIX_VALUES;
+        
+        placements[first] = transter.getMxx();
+        placements[first + 1] = transter.getMxy();
+        placements[first + 2] = transter.getMxz();
+        placements[first + 3] = transter.getTx();
+        placements[first + 4] = transter.getMyx();
+        placements[first + 5] = transter.getMyy();
+        placements[first + 6] = transter.getMyz();
+        placements[first + 7] = transter.getTy();
+        placements[first + 8] = transter.getMzx();
+        placements[first + 9] = transter.getMzy();
+        placements[first + 10] = transter.getMzz();
+        placements[first + 11] = transter.getTz();
+        
+        members[index].bakePoints(points, index * memberVertices * DIMENSIONS);
+    }
+    
+    /**
+     * Gets the view containing the mesh
+     * 
+     * @return The mesh view
+     */
+    public MeshView getMeshView()
+    {
+        return viewster;
+    }
+    
+    /**
+     * Gets whether or not an Individual's placement has changed since it was
+     * last baked
+     * 
+     * @param index The index of the Individual in the mesh
+     * @param transter The Individual's current placement
+     * 
+     * @return Whether or not the Individual has moved
+     */
+    private boolean isMoved(int index, Transform transter)
+    {
+        int first = index * MATRIX_VALUES;
+        
+        return placements[first] != transter.getMxx()
+                || placements[first + 1] != transter.getMxy()
+                || placements[first + 2] != transter.getMxz()
+                || placements[first + 3] != transter.getTx()
+                || placements[first + 4] != transter.getMyx()
+                || placements[first + 5] != transter.getMyy()
+                || placements[first + 6] != transter.getMyz()
+                || placements[first + 7] != transter.getTy()
+                || placements[first + 8] != transter.getMzx()
+                || placements[first + 9] != transter.getMzy()
+                || placements[first + 10] != transter.getMzz()
+                || placements[first + 11] != transter.getTz();
+    }
+    
+    /**
+     * Loads the faces of every Individual into the mesh
+     * 
+     * @param memberFaces The face data of a single Individual
+     */
+    private void loadFaces(int[] memberFaces)
+    {
+        int[] faces = new int[members.length * memberFaces.length];
+        
+        for (int i = 0; i < members.length; i++)
+        {
+            int pointOffset = i * memberVertices;
+            int first = i * memberFaces.length;
+            
+            for (int j = 0; j < memberFaces.length; j = j + INTS_PER_FACE)
+            {
+                // Only the point indices are offset to the Individual's
+                // vertices. The UV indices are the same for every Individual.
+                faces[first + j] = memberFaces[j] + pointOffset;
+                faces[first + j + 1] = memberFaces[j + 1];
+                faces[first + j + 2] = memberFaces[j + 2] + pointOffset;
+                faces[first + j + 3] = memberFaces[j + 3];
+                faces[first + j + 4] = memberFaces[j + 4] + pointOffset;
+                faces[first + j + 5] = memberFaces[j + 5];
+            }
+        }
+        
+        uploader.uploadFaces(meshster, faces);
+    }
+    
+    /**
+     * Re-bakes the Individuals that have moved since the mesh was last baked.
+     * Only the span of the mesh between the first and last of them is pushed
+     * into the mesh. If none of them have moved, the mesh is left as it is.
+     */
+    public void update()
+    {
+        // The first Individual that moved and the one after the last. They are
+        // left equal if none of them have.
+        int firstMoved = members.length;
+        int endMoved = members.length;
+        
+        for (int i = 0; i < members.length; i++)
+        {
+            Transform transter = members[i].getPlacement();
+            
+            if (isMoved(i, transter))
+            {
+                bakeMember(i, transter);
+                
+                if (firstMoved == members.length)
+                {
+                    firstMoved = i;
+                }
+                
+                endMoved = i + 1;
+            }
+        }
+        
+        // As long as something moved...
+        if (firstMoved < endMoved)
+        {
+            // ...push the Individuals that moved. Each Individual is treated as
+            // a row of vertices.
+            uploader.uploadPointRows(meshster, points, memberVertices,
+                    firstMoved, endMoved);
+        }
+    }
+}
@@ -1,15 +1,6 @@
 package graphics;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import javafx.scene.image.Image;
-import javafx.scene.image.PixelReader;
-import javafx.scene.paint.Color;
 import javafx.scene.paint.PhongMaterial;
 import javafx.scene.shape.DrawMode;
 import javafx.scene.shape.MeshView;
@@ -28,6 +19,9 @@ public class MeshObject
     // The number of integers in the face array that are needed to define each
     // face
     protected final byte INTS_PER_FACE = 6;
+    // The number of bytes taken up by the displacement sample of each vertex,
+    // one for each color channel
+    protected final byte SAMPLE_BYTES = 3;
     
     // The size of each side of each face on the mesh when the mesh is not
     // displaced
@@ -52,15 +46,19 @@ public class MeshObject
     // that one vertex would retrieve from that of an adjacent vertex.
     protected int heightPixels;
     
-    // Face data
+    // Face data. It is shared with every mesh of the same size, so it must not
+    // be modified.
     protected int[] faces;
     
-    // Point data
+    // Point data. Null while the mesh is compacted, as the mesh itself holds
+    // the same data.
     protected float[] points;
-    // UV data
+    // UV data. It is shared with every mesh of the same size, so it must not
+    // be modified.
     protected float[] texturePositions;
     
-    // Displacement map
+    // Displacement map. Null if the displacement samples were generated
+    // rather than taken from a map.
     protected Image displacement;
     
     // Contains the diffuse, bump and displacement map
@@ -72,9 +70,21 @@ public class MeshObject
     // The view containing the mesh
     protected MeshView viewster;
     
-    // The x & y matrix of the color data for each vertex taken from the
-    // displacement map
-    protected Color[][] vertexRelatives;
+    // Pushes the point, UV and face data into the mesh
+    protected MeshUploader uploader;
+    
+    // The color data for each vertex taken from the displacement map. Null
+    // while the mesh is compacted.
+    protected DisplacementBuffer displacementSamples;
+    
+    // The number of edits begun on the mesh that are yet to be committed
+    private int openEdits;
+    
+    // Whether or not the changes made since the mesh was last built have made
+    // its size, its displacement samples or its vertex positions out of date
+    private boolean sizeChanged;
+    private boolean samplesChanged;
+    private boolean pointsChanged;
     
     /**
      * CONSTRUCTOR
@@ -91,6 +101,61 @@ public class MeshObject
      */
     public MeshObject(short fWidth, short fDepth, short widthster,
             short depthster, int strengthster, Image dister)
+    {
+        this(fWidth, fDepth, widthster, depthster, strengthster, dister,
+                new DisplacementBuffer(widthster, depthster));
+    }
+    
+    /**
+     * CONSTRUCTOR
+     * 
+     * For a mesh whose displacement samples are not simply taken from the
+     * whole displacement map (such as one chunk of the terrain)
+     * 
+     * @param fWidth The width of each face on the mesh when the mesh is not
+     *               displaced
+     * @param fDepth The depth of each face on the mesh when the mesh is not
+     *                displaced
+     * @param widthster The width of the mesh in vertices
+     * @param depthster The depth of the mesh in vertices
+     * @param strengthster The multiplier for the displacement map that is set
+     *                     by the user
+     * @param dister The displacement map
+     * @param samplester The buffer for the color data taken from the
+     *                   displacement map for each vertex
+     */
+    protected MeshObject(short fWidth, short fDepth, short widthster,
+            short depthster, int strengthster, Image dister,
+            DisplacementBuffer samplester)
+    {
+        // Get the UV data shared by all meshes of this size
+        this(fWidth, fDepth, widthster, depthster, strengthster, dister,
+                samplester, TopologyCache.getTexturePositions(widthster,
+                depthster));
+    }
+    
+    /**
+     * CONSTRUCTOR
+     * 
+     * For a mesh whose UVs cannot be shared with other meshes of the same size
+     * (such as one chunk of the terrain)
+     * 
+     * @param fWidth The width of each face on the mesh when the mesh is not
+     *               displaced
+     * @param fDepth The depth of each face on the mesh when the mesh is not
+     *                displaced
+     * @param widthster The width of the mesh in vertices
+     * @param depthster The depth of the mesh in vertices
+     * @param strengthster The multiplier for the displacement map that is set
+     *                     by the user
+     * @param dister The displacement map
+     * @param samplester The buffer for the color data taken from the
+     *                   displacement map for each vertex
+     * @param uvster The UV data of the mesh
+     */
+    protected MeshObject(short fWidth, short fDepth, short widthster,
+            short depthster, int strengthster, Image dister,
+            DisplacementBuffer samplester, float[] uvster)
     {
         width = widthster;
         depth = depthster;
@@ -102,19 +167,23 @@ public class MeshObject
         faceWidth = fWidth;
         faceDepth = fDepth;
         
-        // Calculate number of integers needed for the face data
-        faces = new int[facesAmount * INTS_PER_FACE];
+        // Get the face data shared by all meshes of this size
+        faces = TopologyCache.getFaces(width, depth);
         
         // Calculate number of floats needed for the float data
         points = new float[width * depth * DIMENSIONS];
         
-        // Calculate number of floats needed for the UV data
-        texturePositions = new float[width * depth * 2];
+        texturePositions = uvster;
         
         displacement = dister;
         
-        widthPixels = (int)(displacement.getWidth() / width);
-        heightPixels = (int)(displacement.getHeight() / depth);
+        // If the samples are taken from a map...
+        if (displacement != null)
+        {
+            // ...find how far apart the pixels for each vertex are.
+            widthPixels = (int)(displacement.getWidth() / width);
+            heightPixels = (int)(displacement.getHeight() / depth);
+        }
         
         texture = new PhongMaterial();
         
@@ -122,8 +191,141 @@ public class MeshObject
         
         viewster = new MeshView(meshster);
         
-        // Make the array big enough to hold the color data for each vertex
-        vertexRelatives = new Color[width][depth];
+        uploader = new MeshUploader();
+        
+        displacementSamples = samplester;
+    }
+    
+    /**
+     * CONSTRUCTOR
+     * 
+     * For a mesh whose displacement samples are generated rather than taken
+     * from a displacement map
+     * 
+     * @param fWidth The width of each face on the mesh when not displaced
+     * @param fDepth The depth of each face on the mesh when not displaced
+     * @param widthster The width of the mesh in vertices
+     * @param depthster The depth of the mesh in vertices
+     * @param strengthster The multiplier for the displacement that is set by
+     *                     the user
+     * @param samplester The color data for each vertex
+     */
+    protected MeshObject(short fWidth, short fDepth, short widthster,
+            short depthster, int strengthster, DisplacementBuffer samplester)
+    {
+        this(fWidth, fDepth, widthster, depthster, strengthster, null,
+                samplester);
+    }
+    
+    /**
+     * CONSTRUCTOR
+     * 
+     * For a copy that shows the same mesh and material as another MeshObject
+     * in a view of its own. Nothing but the view is created, so the copy must
+     * not be loaded or edited; changes to the mesh are made to the original.
+     * 
+     * The view is left empty, so that the copy can be created on any thread.
+     * The mesh and material are put into it by attachShared.
+     * 
+     * @param sharster The MeshObject whose mesh and material are shown
+     */
+    protected MeshObject(MeshObject sharster)
+    {
+        loadShared(sharster);
+        
+        faceWidth = sharster.faceWidth;
+        faceDepth = sharster.faceDepth;
+        
+        texture = sharster.texture;
+        
+        meshster = sharster.meshster;
+        
+        viewster = new MeshView();
+        viewster.setDrawMode(DrawMode.FILL);
+        
+        uploader = sharster.uploader;
+    }
+    
+    /**
+     * Puts the shared mesh and material into the view, if they are not in it
+     * yet. Every view of a mesh or material registers itself with it, which
+     * is not safe to do from several threads at once, so this must be done
+     * from the JavaFX application thread.
+     */
+    public void attachShared()
+    {
+        if (viewster.getMesh() == null)
+        {
+            viewster.setMesh(meshster);
+            viewster.setMaterial(texture);
+        }
+    }
+    
+    /**
+     * Begins an edit of the mesh. Any changes made to the mesh's size,
+     * displacement map or displacement strength are held back until the edit
+     * is committed, so the mesh is only rebuilt once. Edits may be nested; only
+     * committing the outermost one rebuilds the mesh.
+     */
+    public void beginEdit()
+    {
+        openEdits++;
+    }
+    
+    /**
+     * Calculates the vertex positions into the point array without loading
+     * them into the mesh. As the mesh is not touched, this may be called from
+     * any thread.
+     */
+    public void calculatePoints()
+    {
+        // If the point data was released when the mesh was compacted, it is
+        // only needed again now
+        if (points == null)
+        {
+            points = new float[width * depth * DIMENSIONS];
+        }
+        
+        // Calculate every row of vertices straight into the point array
+        VertexGenerator.generate(faceWidth, faceDepth, width, 0, depth,
+                getVertexStrength(), points, displacementSamples);
+    }
+    
+    /**
+     * Commits an edit of the mesh. Once the outermost edit is committed, only
+     * the data made out of date by the changes made during the edit is
+     * rebuilt.
+     * 
+     * @throws IllegalStateException If the mesh's samples were generated and
+     *                               its size was changed without giving
+     *                               samples of the new size, or if it was
+     *                               changed while compacted without giving
+     *                               its samples back
+     */
+    public void commitEdit()
+    {
+        if (openEdits > 0)
+        {
+            openEdits--;
+        }
+        
+        if (openEdits == 0)
+        {
+            loadChanges();
+        }
+    }
+    
+    /**
+     * Releases the point data and displacement samples that are kept after the
+     * mesh is built. The mesh holds the same points itself, so they are only
+     * needed again when the mesh is rebuilt, and the samples can be generated
+     * again by whatever gave them. Until the samples are given back, nothing
+     * that rebuilds the mesh may be done.
+     */
+    public void compact()
+    {
+        points = null;
+        displacementSamples = null;
     }
     
     /**
@@ -136,12 +338,75 @@ public class MeshObject
         return viewster;
     }
     
+    /**
+     * Gets the number of bytes of point data and displacement samples that
+     * have been released by compacting the mesh
+     * 
+     * @return The number of bytes that are not being held
+     */
+    public long getReleasedBytes()
+    {
+        long released = 0;
+        
+        if (points == null)
+        {
+            released = released + (long)width * depth * DIMENSIONS
+                    * Float.BYTES;
+        }
+        
+        if (displacementSamples == null)
+        {
+            released = released + (long)width * depth * SAMPLE_BYTES;
+        }
+        
+        return released;
+    }
+    
+    /**
+     * Gets the number of bytes of point, UV and face data that were pushed into
+     * the mesh during its last rebuild
+     * 
+     * @return The number of bytes uploaded in the last rebuild
+     */
+    public long getUploadedBytes()
+    {
+        return uploader.getBytesUploaded();
+    }
+    
+    /**
+     * Gets the strength that the displacement map is actually applied with when
+     * calculating the positions of the vertices
+     * 
+     * @return The strength the vertices are displaced with
+     */
+    protected int getVertexStrength()
+    {
+        // Multiplied to the user-defined displacement strength variable to
+        // increase the effect of the displacement strength
+        final int DISPLACEMENT_MULTIPLIER = 5;
+        
+        return displacementStrength * DISPLACEMENT_MULTIPLIER;
+    }
+    
+    /**
+     * Gets whether or not this object is shown by its mesh. An object that is
+     * shown some other way does not need its data pushed into the mesh.
+     * 
+     * @return Whether or not the mesh shows this object
+     */
+    protected boolean isMeshShown()
+    {
+        return true;
+    }
+    
     /**
      * Loads the data needed to construct the mesh into most all of the
      * variables and objects within this MeshObject
      */
     public void load()
     {
+        uploader.reset();
+        
         loadDisplacementPixels();
         loadPoints();
         loadTexturePositions();
@@ -152,37 +417,106 @@ public class MeshObject
     }
     
     /**
-     * Loads the pixel colors from the displacement map
+     * Loads the point data that was last calculated into the mesh. If the
+     * points were released when the mesh was compacted, the mesh already
+     * holds them, so nothing is loaded.
      */
-    public void loadDisplacementPixels()
+    public void loadCalculatedPoints()
+    {
+        // Replace any points that may already be in the mesh with the new ones
+        if (isMeshShown() && points != null)
+        {
+            uploader.uploadPoints(meshster, points);
+        }
+    }
+    
+    /**
+     * Rebuilds the data made out of date by the changes made to the mesh since
+     * it was last built
+     */
+    private void loadChanges()
     {
-        PixelReader readster = displacement.getPixelReader();
+        // Samples released when the mesh was compacted must be given back
+        // before the vertices can be calculated from them
+        if ((sizeChanged || samplesChanged || pointsChanged)
+                && displacementSamples == null)
+        {
+            throw new IllegalStateException("The mesh was changed while"
+                    + " compacted without its displacement samples");
+        }
         
-        // The distance of pixels between each pixel to be gathered.
-        double xSpacing = displacement.getWidth() / width;
-        double ySpacing = displacement.getHeight() / depth;
+        // Generated samples cannot be taken again at a new size, so they must
+        // have been given at the mesh's size during the same edit
+        if (sizeChanged && displacement == null
+                && (displacementSamples.getWidth() != width
+                || displacementSamples.getDepth() != depth))
+        {
+            throw new IllegalStateException("The mesh was resized to "
+                    + width + "x" + depth + " without displacement samples of"
+                    + " that size");
+        }
         
-        // For each column of pixels...
-        for (short i = 0; i < width; i++)
+        // As long as something has changed...
+        if (sizeChanged || samplesChanged || pointsChanged)
         {
-            // ...and for each row of pixels...
-            for (short j = 0; j < depth; j++)
+            uploader.reset();
+            
+            // ...if the size changed, re-initialize and re-calculate the
+            // variables that rely on the mesh's size in their calculations.
+            if (sizeChanged)
             {
-                // Values in each row need to be put into the array backwards to
-                // prevent the displacement map from being flipped horizontally
-                // when applied to the mesh, so this "new j" is used instead of
-                // the regular "j" variable.
-                int newJ = depth - j - 1;
+                facesAmount = ((width - 1) * 2) * (depth - 1);
+                faces = TopologyCache.getFaces(width, depth);
+                points = new float[width * depth * DIMENSIONS];
+                texturePositions = TopologyCache.getTexturePositions(width,
+                        depth);
                 
-                // Calculate the x and y position of the pixel in the map to be
-                // gathered for this vertex
-                int xPosition = (int)(xSpacing * i);
-                int yPosition = (int)(ySpacing * j);
+                // Generated samples are given along with the new size
+                if (displacement != null)
+                {
+                    displacementSamples = new DisplacementBuffer(width, depth);
+                }
+            }
+            
+            // The pixel colors only need to be taken from the displacement map
+            // (if there is one) again if the map or the number of vertices
+            // changed
+            if ((sizeChanged || samplesChanged) && displacement != null)
+            {
+                widthPixels = (int)(displacement.getWidth() / width);
+                heightPixels = (int)(displacement.getHeight() / depth);
                 
-                // Get the correct color
-                vertexRelatives[i][newJ] = readster.getColor(xPosition,
-                        yPosition);
+                loadDisplacementPixels();
+            }
+            
+            if (sizeChanged)
+            {
+                loadTexturePositions();
+            }
+            
+            // Every change moves the vertices
+            loadPoints();
+            
+            if (sizeChanged)
+            {
+                loadFaces();
             }
+            
+            sizeChanged = false;
+            samplesChanged = false;
+            pointsChanged = false;
+        }
+    }
+    
+    /**
+     * Loads the pixel colors from the displacement map. Generated samples are
+     * left as they are.
+     */
+    public void loadDisplacementPixels()
+    {
+        if (displacement != null)
+        {
+            displacementSamples.load(displacement);
         }
     }
     
@@ -191,55 +525,12 @@ public class MeshObject
      */
     public void loadFaces()
     {
-        // The number of which vertex the face being created is based upon. The
-        // vertices are number from left to right, top to bottom.
-        int point = 0;
-        
-        // For every set of values for each 2 faces in the face array...
-        for (int i = 0; i + 1 < facesAmount * INTS_PER_FACE;
-                i = i + INTS_PER_FACE * 2)
+        // As long as the mesh is what shows this object...
+        if (isMeshShown())
         {
-            // ...if the point the face is being built off of is not at the
-            // vertical edge on the right side of the mesh...
-            if (!((point + 1) % width == 0))
-            {
-                // ...get the points for the first of the 2 faces.
-                faces[i] = point + width + 1;
-                faces[i + 1] = point + width + 1;
-                faces[i + 2] = point + width;
-                faces[i + 3] = point + width;
-                faces[i + 4] = point;
-                faces[i + 5] = point;
-                
-                // Get the points for the second of the 2 faces
-                faces[i + INTS_PER_FACE] = point + 1;
-                faces[i + INTS_PER_FACE + 1] = point + 1;
-                faces[i + INTS_PER_FACE + 2] = point + width + 1;
-                faces[i + INTS_PER_FACE + 3] = point + width + 1;
-                faces[i + INTS_PER_FACE + 4] = point;
-                faces[i + INTS_PER_FACE + 5] = point;
-            }
-            // ...otherwise...
-            else
-            {
-                // ...no faces should be built off of the points on the right
-                // edge of the mesh, so no values will be assigned for this
-                // iteration.
-                // This line of code prevents the incrementor from incrementing
-                // this iteration. If this was not here, there would be null
-                // values in the face array for the 12 elements being skipped
-                // over.
-                i = i - INTS_PER_FACE * 2;
-            }
-            
-            // Move to the next point for the next iteration
-            point++;
+            // ...replace the faces already present with the new ones.
+            uploader.uploadFaces(meshster, faces);
         }
-        
-        // Remove the faces already present
-        meshster.getFaces().clear();
-        // Assign the new faces
-        meshster.getFaces().addAll(faces);
     }
     
     /**
@@ -247,112 +538,59 @@ public class MeshObject
      */
     public void loadPoints()
     {
-        // Multiplied to the user-defined displacement strength variable to
-        // increase the effect of the displacement strength
-        final int DISPLACEMENT_MULTIPLIER = 5;
-        int actualStrength = displacementStrength * DISPLACEMENT_MULTIPLIER;
-        
-        // Arraylist of objects that will retrieve the values of the threads
-        List<Future<Integer>> threadResults = new ArrayList<>();
+        calculatePoints();
+        loadCalculatedPoints();
+    }
+    
+    /**
+     * Takes the size, displacement and data of the mesh shared with another
+     * MeshObject. Used when the other MeshObject's mesh has been rebuilt, as
+     * the data of its old mesh may have been replaced.
+     * 
+     * @param sharster The MeshObject whose mesh is shown
+     */
+    protected void loadShared(MeshObject sharster)
+    {
+        width = sharster.width;
+        depth = sharster.depth;
+        displacementStrength = sharster.displacementStrength;
         
-        // Pool of threads for calculating the positions of the vertices
-        ExecutorService exster = Executors.newCachedThreadPool();
+        facesAmount = sharster.facesAmount;
         
-        // For each column of vertices in the mesh...
-        for (short z = 0; z < depth; z++)
-        {
-            // ...and for each row of vertices...
-            for (short x = 0; x < width; x++)
-            {
-                // Thread for finding the x position of the vertex
-                Callable<Integer> xThread = new VertexThread(faceWidth, x,
-                        actualStrength, 'x', vertexRelatives[x][z]);
-                
-                // Thread for finding the y position of the vertex
-                Callable<Integer> yThread = new VertexThread(0, 0,
-                        actualStrength, 'y', vertexRelatives[x][z]);
-                
-                // Thread for finding the z position of the vertex
-                Callable<Integer> zThread = new VertexThread(faceDepth, z,
-                        actualStrength, 'z', vertexRelatives[x][z]);
-                
-                // Get the calculations as they become available
-                Future<Integer> xFuture = exster.submit(xThread);
-                Future<Integer> yFuture = exster.submit(yThread);
-                Future<Integer> zFuture = exster.submit(zThread);
-                
-                // Add them to the arraylists
-                threadResults.add(xFuture);
-                threadResults.add(yFuture);
-                threadResults.add(zFuture);
-            }
-        }
+        faces = sharster.faces;
+        points = sharster.points;
+        texturePositions = sharster.texturePositions;
         
-        // Clear any points that may already be in the mesh
-        meshster.getPoints().clear();
+        displacement = sharster.displacement;
         
-        // Incremation variable
-        int i = 0;
-        // For each calculation...
-        for (Future<Integer> vertexResult : threadResults)
-        {
-            try
-            {
-                // ...get it.
-                points[i] = vertexResult.get();
-                
-                // Vertex positions must be added to the mesh view individually
-                // for some reason. I tried adding the entire array to the mesh
-                // view after this loop, and all of the vertices were left
-                // positioned at 0,0,0.
-                meshster.getPoints().addAll(points[i]);
-            }
-            catch (InterruptedException | ExecutionException ex)
-            {
-                points[i] = 0;
-            }
-            
-            i++;
-        }
+        widthPixels = sharster.widthPixels;
+        heightPixels = sharster.heightPixels;
         
-        exster.shutdown();
+        displacementSamples = sharster.displacementSamples;
     }
     
     /**
      * Loads the UV mapping positions into the mesh
      */
-    private void loadTexturePositions()
+    protected void loadTexturePositions()
     {
-        // The percentage of the width and height of the displacement image that
-        // each face would occupy
-        float faceSizeU = (float)(1.0 / (width - 1));
-        float faceSizeV = (float)(1.0 / (depth - 1));
-        
-        // An incrementor for the array
-        int i = 0;
-        
-        // For each row in reverse order... (reverse order prevents the maps
-        // from being flipped horizontally)
-        for (int v = depth - 1; v > -1; v--)
+        // Replace any old UV coordinates with the new ones
+        if (isMeshShown())
         {
-            // ...and for each column...
-            for (int u = 0; u < width; u++)
-            {
-                // ...get the percentage that the point is from the vertical
-                // edges.
-                texturePositions[i] = u * faceSizeU;
-                // Get the percentage that the pooint is from the horizontal
-                // edges
-                texturePositions[i + 1] = v * faceSizeV;
-                
-                i = i + 2;
-            }
+            uploader.uploadTexCoords(meshster, texturePositions);
         }
-        
-        // Remove any old UV coordinates
-        meshster.getTexCoords().clear();
-        // Add the new ones
-        meshster.getTexCoords().setAll(texturePositions);
+    }
+    
+    /**
+     * Gives back the displacement samples released when the mesh was
+     * compacted. They must be the same samples the mesh was built from, as
+     * the mesh is not rebuilt.
+     * 
+     * @param samplester The color data for each vertex
+     */
+    protected void restoreDisplacementSamples(DisplacementBuffer samplester)
+    {
+        displacementSamples = samplester;
     }
     
     /**
@@ -372,22 +610,12 @@ public class MeshObject
      */
     public void setDepth(short depthster)
     {
-        depth = depthster;
+        beginEdit();
         
-        // Re-initialize and re-calculate the variables that rely on the mesh's
-        // depth in their calculations
-        facesAmount = ((width - 1) * 2) * (depth - 1);
-        widthPixels = (int)(displacement.getWidth() / width);
-        heightPixels = (int)(displacement.getHeight() / depth);
-        faces = new int[facesAmount * INTS_PER_FACE];
-        points = new float[width * depth * DIMENSIONS];
-        texturePositions = new float[width * depth * 2];
-        vertexRelatives = new Color[width][depth];
+        depth = depthster;
+        sizeChanged = true;
         
-        loadDisplacementPixels();
-        loadTexturePositions();
-        loadPoints();
-        loadFaces();
+        commitEdit();
     }
     
     /**
@@ -407,17 +635,30 @@ public class MeshObject
      */
     protected void setDisplacement(Image dister)
     {
+        beginEdit();
+        
         displacement = dister;
+        samplesChanged = true;
+        
+        commitEdit();
+    }
+    
+    /**
+     * Sets the mesh's displacement samples to ones that were generated rather
+     * than taken from a displacement map. The samples must be for a mesh of
+     * this mesh's size once the current edit is committed.
+     * 
+     * @param samplester The color data for each vertex
+     */
+    protected void setDisplacementSamples(DisplacementBuffer samplester)
+    {
+        beginEdit();
         
-        // Re-initialize and re-calculate the variables that rely on the mesh's
-        // displacement map in their calculations
-        widthPixels = (int)(displacement.getWidth() / width);
-        heightPixels = (int)(displacement.getHeight() / depth);
-        vertexRelatives = new Color[width][depth];
+        displacement = null;
+        displacementSamples = samplester;
+        samplesChanged = true;
         
-        loadDisplacementPixels();
-        loadPoints();
-        loadFaces();
+        commitEdit();
     }
     
     /**
@@ -427,13 +668,35 @@ public class MeshObject
      */
     public void setDisplacementStrength(int strengthster)
     {
+        beginEdit();
+        
         displacementStrength = strengthster;
         
-        // Re-initialize and re-calculate the variables that rely on the
-        // displacement map's strength in their calculations
-        loadDisplacementPixels();
-        loadPoints();
-        loadFaces();
+        // Only the positions of the vertices rely on the strength. They are
+        // re-scaled from the pixel colors already sampled from the
+        // displacement map, leaving the samples, faces and UVs as they are.
+        pointsChanged = true;
+        
+        commitEdit();
+    }
+    
+    /**
+     * Sets the size of each face on the mesh when the mesh is not displaced
+     * 
+     * @param fWidth The width of each face
+     * @param fDepth The depth of each face
+     */
+    public void setFaceSize(short fWidth, short fDepth)
+    {
+        beginEdit();
+        
+        faceWidth = fWidth;
+        faceDepth = fDepth;
+        
+        // Only the positions of the vertices rely on the size of the faces
+        pointsChanged = true;
+        
+        commitEdit();
     }
     
     /**
@@ -453,22 +716,12 @@ public class MeshObject
      */
     public void setWidth(short widthster)
     {
-        width = widthster;
+        beginEdit();
         
-        // Re-initialize and re-calculate the variables that rely on the mesh's
-        // width in their calculations
-        facesAmount = ((width - 1) * 2) * (depth - 1);
-        widthPixels = (int)(displacement.getWidth() / width);
-        heightPixels = (int)(displacement.getHeight() / depth);
-        points = new float[width * depth * DIMENSIONS];
-        texturePositions = new float[width * depth * 2];
-        faces = new int[facesAmount * INTS_PER_FACE];
-        vertexRelatives = new Color[width][depth];
+        width = widthster;
+        sizeChanged = true;
         
-        loadDisplacementPixels();
-        loadTexturePositions();
-        loadPoints();
-        loadFaces();
+        commitEdit();
     }
     
     /**
@@ -485,12 +738,14 @@ public class MeshObject
                 + "\nModel Width in Vertices: " + width
                 + "\nModel Depth in Vertices: " + depth
                 + "\n\nNumber of Faces: " + facesAmount
-                + "\n\nDisplacement Strength: " + displacementStrength + "\n";
+                + "\n\nDisplacement Strength: " + displacementStrength
+                + "\n\nBytes Uploaded in Last Rebuild: " + getUploadedBytes()
+                + "\n";
         
         // These variables are taken from the mesh object instead of the
         // external variables to increase accuracy in debugging
         int[] facesFromMesh = new int[faces.length];
-        float[] pointsFromMesh = new float[points.length];
+        float[] pointsFromMesh = new float[meshster.getPoints().size()];
         float[] UVsFromMesh = new float[texturePositions.length];
         
         meshster.getFaces().toArray(facesFromMesh);
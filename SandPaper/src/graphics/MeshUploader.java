@@ -0,0 +1,131 @@
+package graphics;
+
+import javafx.collections.ObservableFloatArray;
+import javafx.scene.shape.TriangleMesh;
+
+/**
+ * Copies a mesh's point, UV and face data into its TriangleMesh.
+ * 
+ * Each array is pushed into the mesh in a single bulk operation so the mesh
+ * only fires one change for it. When only some rows of a mesh's vertices have
+ * changed, only those rows are pushed. The number of bytes pushed is kept
+ * track of so the cost of each rebuild can be reported.
+ * 
+ * @author George Tiersma
+ */
+public class MeshUploader
+{
+    // The number of dimensions
+    private static final byte DIMENSIONS = 3;
+    
+    // The number of bytes in a float and in an int
+    private static final byte FLOAT_BYTES = 4;
+    private static final byte INT_BYTES = 4;
+    
+    // The number of bytes pushed into the mesh since the uploader was last
+    // reset
+    private long bytesUploaded;
+    
+    /**
+     * CONSTRUCTOR
+     */
+    public MeshUploader()
+    {
+        bytesUploaded = 0;
+    }
+    
+    /**
+     * Gets the number of bytes pushed into the mesh since the uploader was
+     * last reset
+     * 
+     * @return The number of bytes uploaded
+     */
+    public long getBytesUploaded()
+    {
+        return bytesUploaded;
+    }
+    
+    /**
+     * Resets the count of bytes uploaded. For use at the start of each
+     * rebuild of the mesh.
+     */
+    public void reset()
+    {
+        bytesUploaded = 0;
+    }
+    
+    /**
+     * Pushes the face data into the mesh
+     * 
+     * @param meshster The mesh
+     * @param faces The face data
+     */
+    public void uploadFaces(TriangleMesh meshster, int[] faces)
+    {
+        meshster.getFaces().setAll(faces);
+        
+        bytesUploaded = bytesUploaded + (long)faces.length * INT_BYTES;
+    }
+    
+    /**
+     * Pushes all of the point data into the mesh
+     * 
+     * @param meshster The mesh
+     * @param points The point data
+     */
+    public void uploadPoints(TriangleMesh meshster, float[] points)
+    {
+        meshster.getPoints().setAll(points);
+        
+        bytesUploaded = bytesUploaded + (long)points.length * FLOAT_BYTES;
+    }
+    
+    /**
+     * Pushes the point data of the given rows of vertices into the mesh. If the
+     * mesh does not already hold the same number of points as the point array,
+     * all of the point data is pushed instead.
+     * 
+     * @param meshster The mesh
+     * @param points The point data
+     * @param width The width of the mesh in vertices
+     * @param firstRow The first row of vertices that changed
+     * @param endRow The row after the last row of vertices that changed
+     */
+    public void uploadPointRows(TriangleMesh meshster, float[] points,
+            int width, int firstRow, int endRow)
+    {
+        ObservableFloatArray meshPoints = meshster.getPoints();
+        
+        // If the mesh's points are not the same size as the new ones...
+        if (meshPoints.size() != points.length)
+        {
+            // ...there is nothing to patch, so replace them all.
+            uploadPoints(meshster, points);
+        }
+        // ...otherwise...
+        else
+        {
+            // ...only replace the rows that changed.
+            int start = firstRow * width * DIMENSIONS;
+            int length = (endRow - firstRow) * width * DIMENSIONS;
+            
+            meshPoints.set(start, points, start, length);
+            
+            bytesUploaded = bytesUploaded + (long)length * FLOAT_BYTES;
+        }
+    }
+    
+    /**
+     * Pushes the UV data into the mesh
+     * 
+     * @param meshster The mesh
+     * @param texturePositions The UV data
+     */
+    public void uploadTexCoords(TriangleMesh meshster, float[] texturePositions)
+    {
+        meshster.getTexCoords().setAll(texturePositions);
+        
+        bytesUploaded = bytesUploaded
+                + (long)texturePositions.length * FLOAT_BYTES;
+    }
+}
@@ -0,0 +1,509 @@
+package graphics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javafx.application.Platform;
+import javafx.geometry.Point3D;
+import javafx.scene.Group;
+import javafx.scene.paint.PhongMaterial;
+import javafx.scene.shape.DrawMode;
+import javafx.scene.shape.MeshView;
+import javafx.scene.shape.TriangleMesh;
+
+/**
+ * Shows a terrain as a quadtree of TerrainPatches, each at a level of detail
+ * that suits how far it is from the camera.
+ * 
+ * Patches are swapped for more detailed ones for as long as they would be out
+ * of place by more than a couple of pixels on screen. The vertices along the
+ * side of a patch that borders a less detailed one are moved onto that
+ * patch's edge, so no cracks open up between them. Choosing and building the
+ * patches is done on a background thread. Only the finished meshes are pushed
+ * into the scene on the JavaFX thread.
+ * 
+ * @author George Tiersma
+ */
+public class PatchTree
+{
+    // The number of sides each patch has
+    private static final byte SIDES = 4;
+    
+    // The greatest number of pixels on screen that a patch is allowed to be
+    // out of place by before it is swapped for more detailed ones
+    private static final double MAX_SCREEN_ERROR = 2.0;
+    
+    // Distances closer than this are treated as this to keep patches the
+    // camera is inside of from dividing by 0
+    private static final double MIN_DISTANCE = 1.0;
+    
+    // The thread shared by every tree for choosing and building patches. There
+    // is only 1 so that the jobs for a tree are done in the order given.
+    private static final ExecutorService WORKER
+            = Executors.newSingleThreadExecutor((runster) ->
+            {
+                Thread threadster = new Thread(runster);
+                
+                // The thread should not keep the program open once it closes
+                threadster.setDaemon(true);
+                
+                return threadster;
+            });
+    
+    // The group holding the views of the patches currently shown
+    private Group groupster;
+    
+    // The material shared by every patch
+    private PhongMaterial texture;
+    
+    // Pushes each patch's data into its mesh
+    private MeshUploader uploader;
+    
+    // The patches currently shown (only used on the JavaFX thread)
+    private Set<TerrainPatch> shownPatches;
+    
+    // Counts how many times the terrain's points have been given. Work for an
+    // older count is thrown away.
+    private final AtomicInteger version;
+    
+    // Whether or not the patches are already waiting to be chosen again for a
+    // camera change
+    private final AtomicBoolean refinePending;
+    
+    // The camera's eye in the terrain's coordinates and its distance (in
+    // pixels) from the screen
+    private volatile Point3D eye;
+    private volatile double focalLength;
+    
+    // The variables below are only used on the background thread
+    
+    // The largest patch, covering the whole terrain
+    private TerrainPatch root;
+    
+    // The terrain's point data
+    private TerrainPoints points;
+    
+    // The width and depth of the terrain in vertices
+    private int width;
+    private int depth;
+    
+    // The version that the patches were built for
+    private int builtVersion;
+    
+    // The patches chosen the last time they were chosen
+    private List<TerrainPatch> chosenPatches;
+    
+    /**
+     * CONSTRUCTOR
+     * 
+     * @param materialster The material shared by every patch
+     */
+    public PatchTree(PhongMaterial materialster)
+    {
+        groupster = new Group();
+        
+        texture = materialster;
+        
+        uploader = new MeshUploader();
+        
+        shownPatches = new HashSet<>();
+        
+        version = new AtomicInteger(0);
+        
+        refinePending = new AtomicBoolean(false);
+        
+        eye = null;
+        focalLength = 0;
+        
+        root = null;
+        
+        chosenPatches = new ArrayList<>();
+    }
+    
+    /**
+     * Builds a patch and all of the patches below it. Must be called on the
+     * background thread.
+     * 
+     * @param firstX The number of the first column of vertices covered
+     * @param firstZ The number of the first row of vertices covered
+     * @param lastX The number of the last column of vertices covered
+     * @param lastZ The number of the last row of vertices covered
+     * @param stride The number of the terrain's vertices from one of the
+     *               patch's vertices to the next
+     * 
+     * @return The patch
+     */
+    private TerrainPatch build(int firstX, int firstZ, int lastX, int lastZ,
+            int stride)
+    {
+        TerrainPatch patster = new TerrainPatch(firstX, firstZ, lastX, lastZ,
+                stride);
+        
+        // As long as this patch does not already use every vertex...
+        if (stride > 1)
+        {
+            // ...split it into quarters.
+            int half = TerrainPatch.PATCH_FACES * stride / 2;
+            
+            List<TerrainPatch> children = new ArrayList<>();
+            
+            for (int z = firstZ; z < lastZ; z = z + half)
+            {
+                for (int x = firstX; x < lastX; x = x + half)
+                {
+                    children.add(build(x, z, Math.min(x + half, lastX),
+                            Math.min(z + half, lastZ), stride / 2));
+                }
+            }
+            
+            patster.setChildren(children.toArray(new TerrainPatch[0]));
+        }
+        
+        patster.calculateBounds(points);
+        patster.calculateError(points);
+        
+        return patster;
+    }
+    
+    /**
+     * Chooses the patches to be shown. A patch is shown if it would be close
+     * enough to its place on screen. Otherwise its children are checked
+     * instead.
+     * 
+     * @param patster The patch to check
+     * @param eyster The camera's eye in the terrain's coordinates
+     * @param focal The camera's distance (in pixels) from the screen
+     * @param chosen The list that chosen patches are added to
+     */
+    private void choose(TerrainPatch patster, Point3D eyster, double focal,
+            List<TerrainPatch> chosen)
+    {
+        double distance = Math.max(patster.getDistance(eyster), MIN_DISTANCE);
+        
+        // How many pixels the patch could be out of place by on screen
+        double screenError = patster.getError() * focal / distance;
+        
+        if (patster.getChildren().length > 0 && screenError > MAX_SCREEN_ERROR)
+        {
+            for (TerrainPatch child : patster.getChildren())
+            {
+                choose(child, eyster, focal, chosen);
+            }
+        }
+        else
+        {
+            chosen.add(patster);
+        }
+    }
+    
+    /**
+     * Gets the strides of the patches neighboring each side of every chosen
+     * patch
+     * 
+     * @param chosen The chosen patches
+     * 
+     * @return The neighbors' strides on the left, right, front and back side
+     *         of each patch, in the same order as the patches. A side on the
+     *         edge of the terrain has a stride of 0.
+     */
+    private int[][] findNeighbors(List<TerrainPatch> chosen)
+    {
+        final short FACES = TerrainPatch.PATCH_FACES;
+        
+        // The terrain is split into blocks the size of the most detailed
+        // patches. Every chosen patch covers a whole number of blocks.
+        int blockColumns = Math.max((width - 2) / FACES + 1, 1);
+        int blockRows = Math.max((depth - 2) / FACES + 1, 1);
+        
+        // The stride of the patch covering each block
+        int[] blockStrides = new int[blockColumns * blockRows];
+        
+        for (TerrainPatch patster : chosen)
+        {
+            for (int z = patster.getFirstRow() / FACES;
+                    z <= (patster.getLastRow() - 1) / FACES; z++)
+            {
+                for (int x = patster.getFirstColumn() / FACES;
+                        x <= (patster.getLastColumn() - 1) / FACES; x++)
+                {
+                    blockStrides[z * blockColumns + x] = patster.getStride();
+                }
+            }
+        }
+        
+        int[][] neighbors = new int[chosen.size()][SIDES];
+        
+        for (int i = 0; i < chosen.size(); i++)
+        {
+            TerrainPatch patster = chosen.get(i);
+            
+            int left = patster.getFirstColumn() / FACES;
+            int right = (patster.getLastColumn() - 1) / FACES;
+            int front = patster.getFirstRow() / FACES;
+            int back = (patster.getLastRow() - 1) / FACES;
+            
+            // A less detailed neighbor covers the whole side, so the largest
+            // stride along a side is the one to stitch to
+            for (int z = front; z <= back; z++)
+            {
+                if (left > 0)
+                {
+                    neighbors[i][0] = Math.max(neighbors[i][0],
+                            blockStrides[z * blockColumns + left - 1]);
+                }
+                if (right < blockColumns - 1)
+                {
+                    neighbors[i][1] = Math.max(neighbors[i][1],
+                            blockStrides[z * blockColumns + right + 1]);
+                }
+            }
+            
+            for (int x = left; x <= right; x++)
+            {
+                if (front > 0)
+                {
+                    neighbors[i][2] = Math.max(neighbors[i][2],
+                            blockStrides[(front - 1) * blockColumns + x]);
+                }
+                if (back < blockRows - 1)
+                {
+                    neighbors[i][3] = Math.max(neighbors[i][3],
+                            blockStrides[(back + 1) * blockColumns + x]);
+                }
+            }
+        }
+        
+        return neighbors;
+    }
+    
+    /**
+     * Gets the group holding the views of the patches currently shown
+     * 
+     * @return The group of patches
+     */
+    public Group getGroup()
+    {
+        return groupster;
+    }
+    
+    /**
+     * Builds the patches for new point data. Must be called on the background
+     * thread.
+     * 
+     * @param versionster The version that the point data was given for
+     * @param pointster The terrain's point data
+     */
+    private void rebuild(int versionster, TerrainPoints pointster)
+    {
+        // If newer point data has already been given, there is no point in
+        // building for this data
+        if (versionster == version.get())
+        {
+            points = pointster;
+            width = pointster.getWidth();
+            depth = pointster.getDepth();
+            
+            // Find the stride at which one patch covers the whole terrain
+            int longest = Math.max(width, depth) - 1;
+            int stride = 1;
+            
+            while (TerrainPatch.PATCH_FACES * stride < longest)
+            {
+                stride = stride * 2;
+            }
+            
+            root = build(0, 0, width - 1, depth - 1, stride);
+            
+            builtVersion = versionster;
+            
+            // None of the new patches have meshes yet
+            chosenPatches = new ArrayList<>();
+            
+            update();
+        }
+    }
+    
+    /**
+     * Chooses the patches again for the camera's latest position. Must be
+     * called on the background thread.
+     */
+    private void refine()
+    {
+        refinePending.set(false);
+        
+        if (root != null)
+        {
+            update();
+        }
+    }
+    
+    /**
+     * Sets where the camera is. The patches are chosen again in the
+     * background.
+     * 
+     * @param eyster The camera's eye in the terrain's coordinates
+     * @param focal The camera's distance (in pixels) from the screen
+     */
+    public void setCamera(Point3D eyster, double focal)
+    {
+        eye = eyster;
+        focalLength = focal;
+        
+        // Many camera changes can come in before the patches are chosen, so
+        // only the latest one needs to be handled
+        if (!refinePending.getAndSet(true))
+        {
+            WORKER.execute(this::refine);
+        }
+    }
+    
+    /**
+     * Sets the terrain's point data. The patches are rebuilt in the background.
+     * The terrain's chunks must not be replaced or modified until the next
+     * time this is called, as they are read from the background thread.
+     * 
+     * @param pointster The terrain's point data
+     */
+    public void setPoints(TerrainPoints pointster)
+    {
+        int versionster = version.incrementAndGet();
+        
+        WORKER.execute(() -> rebuild(versionster, pointster));
+    }
+    
+    /**
+     * Shows the chosen patches, pushing the data of any patches that were
+     * built into their meshes. Must be called on the JavaFX thread.
+     * 
+     * @param versionster The version the patches were built for
+     * @param chosen The chosen patches
+     * @param built The patches that were built
+     * @param builtPoints The point data of each built patch
+     * @param builtTexturePositions The UV data of each built patch
+     */
+    private void show(int versionster, List<TerrainPatch> chosen,
+            List<TerrainPatch> built, List<float[]> builtPoints,
+            List<float[]> builtTexturePositions)
+    {
+        // Patches built for old point data are not shown
+        if (versionster == version.get())
+        {
+            uploader.reset();
+            
+            for (int i = 0; i < built.size(); i++)
+            {
+                TerrainPatch patster = built.get(i);
+                MeshView viewster = patster.getView();
+                
+                if (viewster == null)
+                {
+                    viewster = new MeshView(new TriangleMesh());
+                    viewster.setDrawMode(DrawMode.FILL);
+                    viewster.setMaterial(texture);
+                    
+                    patster.setView(viewster);
+                }
+                
+                TriangleMesh meshster = (TriangleMesh)viewster.getMesh();
+                
+                uploader.uploadPoints(meshster, builtPoints.get(i));
+                uploader.uploadTexCoords(meshster,
+                        builtTexturePositions.get(i));
+                uploader.uploadFaces(meshster, TopologyCache.getFaces(
+                        patster.getColumnsAmount(), patster.getRowsAmount()));
+            }
+            
+            Set<TerrainPatch> chosenSet = new HashSet<>(chosen);
+            
+            // Let go of the meshes of the patches that are no longer shown
+            for (TerrainPatch patster : shownPatches)
+            {
+                if (!chosenSet.contains(patster))
+                {
+                    patster.setView(null);
+                }
+            }
+            
+            shownPatches = chosenSet;
+            
+            List<MeshView> views = new ArrayList<>();
+            
+            for (TerrainPatch patster : chosen)
+            {
+                views.add(patster.getView());
+            }
+            
+            groupster.getChildren().setAll(views);
+        }
+    }
+    
+    /**
+     * Chooses the patches for the camera's latest position and builds those
+     * that are new or whose neighbors changed. Must be called on the
+     * background thread.
+     */
+    private void update()
+    {
+        List<TerrainPatch> chosen = new ArrayList<>();
+        
+        // Until the camera's position is known, the whole terrain is shown at
+        // the lowest detail
+        if (eye == null)
+        {
+            chosen.add(root);
+        }
+        else
+        {
+            choose(root, eye, focalLength, chosen);
+        }
+        
+        int[][] neighbors = findNeighbors(chosen);
+        
+        List<TerrainPatch> built = new ArrayList<>();
+        List<float[]> builtPoints = new ArrayList<>();
+        List<float[]> builtTexturePositions = new ArrayList<>();
+        
+        // Patches that are no longer chosen will need to be built again if
+        // they are chosen later
+        Set<TerrainPatch> chosenSet = new HashSet<>(chosen);
+        
+        for (TerrainPatch patster : chosenPatches)
+        {
+            if (!chosenSet.contains(patster))
+            {
+                patster.setStitching(null);
+            }
+        }
+        
+        for (int i = 0; i < chosen.size(); i++)
+        {
+            TerrainPatch patster = chosen.get(i);
+            
+            // If the patch is new or its neighbors have changed...
+            if (!Arrays.equals(patster.getStitching(), neighbors[i]))
+            {
+                // ...build it again.
+                built.add(patster);
+                builtPoints.add(patster.createPoints(points,
+                        neighbors[i]));
+                builtTexturePositions.add(patster.createTexturePositions(width,
+                        depth));
+                
+                patster.setStitching(neighbors[i]);
+            }
+        }
+        
+        chosenPatches = chosen;
+        
+        int versionster = builtVersion;
+        
+        Platform.runLater(() -> show(versionster, chosen, built, builtPoints,
+                builtTexturePositions));
+    }
+}
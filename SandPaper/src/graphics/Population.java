@@ -1,15 +1,27 @@
 package graphics;
 
-import generics.DeepCloner;
-import generics.ProgressBarDialog;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import javafx.animation.AnimationTimer;
 import javafx.concurrent.Service;
 import javafx.concurrent.Task;
+import javafx.geometry.Point3D;
 import javafx.scene.Group;
-import javafx.scene.image.Image;
-import javafx.scene.image.PixelWriter;
-import javafx.scene.image.WritableImage;
+import javafx.scene.Node;
+import javafx.scene.image.PixelReader;
 import javafx.scene.paint.Color;
+import javafx.scene.paint.PhongMaterial;
+import javafx.scene.transform.Rotate;
 
 /**
  * A group of individual MeshObjects spread throughout the terrain
@@ -18,6 +30,57 @@ import javafx.scene.paint.Color;
  */
 public class Population
 {
+    // The threads shared by every population for creating Individuals. There
+    // is 1 for each processor.
+    private static final ExecutorService GENERATORS
+            = Executors.newFixedThreadPool(
+                    Runtime.getRuntime().availableProcessors(), (runster) ->
+            {
+                Thread threadster = new Thread(runster);
+                
+                // The threads should not keep the program open once it closes
+                threadster.setDaemon(true);
+                
+                return threadster;
+            });
+    
+    // The number of Individuals that 1 thread creates before taking the next
+    // batch
+    private static final int BATCH_SIZE = 64;
+    
+    // The most vertices that Individuals are merged into a single mesh with
+    private static final int MERGED_MESH_VERTICES = 65536;
+    
+    // The kinds of random streams that are derived from the seed. There is a
+    // stream of each kind for each row of the terrain, Individual or variant.
+    private static final byte LOCATION_STREAMS = 0;
+    private static final byte INDIVIDUAL_STREAMS = 1;
+    private static final byte VARIANT_STREAMS = 2;
+    // Keeps the streams of each kind from being seeded alike
+    private static final long STREAM_GAP = 1L << 32;
+    
+    // The width and depth (measured in the terrain's vertices) of each cell
+    // of the grid the Individuals are gathered into. Each cell is shown or
+    // hidden as a whole.
+    private static final short CELL_SIZE = 16;
+    
+    // Added to the X rotation to ensure the Individuals are facing the camera
+    private static final short BASE_X_ROTATION = 90;
+    
+    // The size (in pixels on the screen) that an Individual must appear
+    // smaller than to be shown by an impostor, unless another is set
+    public static final short DEFAULT_IMPOSTOR_SIZE = 24;
+    
+    // The largest value that a color channel can have
+    private static final double CHANNEL_MAX = 255.0;
+    
+    // Bits that a pixel's ARGB value must be shifted to reach each channel
+    private static final byte RED_SHIFT = 16;
+    private static final byte GREEN_SHIFT = 8;
+    
+    // The bits of a pixel's ARGB value that hold a single channel
+    private static final int CHANNEL_MASK = 0xFF;
+    
     // A value used in calculations to get the correct value for the brightness
     // of a pixel
     private final byte COLOR_ADJUSTMENT = 100;
@@ -27,6 +90,12 @@ public class Population
     // large
     private final short SIZE_DIVIDER = 3;
     
+    // The width and height of each face on a variant's mesh. It is the middle
+    // of the sizes that the width and height maps can give, so the meshes are
+    // stretched as little as possible.
+    private final short VARIANT_FACE_SIZE = COLOR_ADJUSTMENT / 2
+            / SIZE_DIVIDER;
+    
     // Default textures to use for when no maps have been selected by the user
     private final TextureObject GRAY_TEXTURE = new TextureObject(0);
     private final TextureObject WHITE_TEXTURE = new TextureObject(1);
@@ -34,35 +103,79 @@ public class Population
     // Whether or not the service is ready to be used
     private boolean servicePrepared;
     
-    // The rotation values that Individuals will use to calculate their Rotate-
-    // related values
-    private short baseRotateX;
-    private short baseRotateY;
+    // Whether or not the Individuals are shown merged into a few large meshes
+    // rather than each by their own
+    private boolean merged;
+    
+    // Whether or not the Individuals far from the camera are shown by flat
+    // impostors of the variants' meshes rather than by the meshes themselves
+    private boolean impostorMode;
+    
+    // Whether or not the variants' meshes have changed since their impostors
+    // were last rendered
+    private boolean impostorsOutdated;
+    
+    // The size (in pixels on the screen) that an Individual must appear
+    // smaller than to be shown by an impostor
+    private short impostorSize;
+    
+    // Whether or not the Individuals release the point data and displacement
+    // samples that they can rebuild once their meshes are built
+    private boolean compact;
+    
+    // The rotations that keep the Individuals facing the camera. Every
+    // Individual is given the same ones, so turning the camera only changes
+    // these.
+    private Rotate facingX;
+    private Rotate facingY;
     
     // The width and height of each Individual (measured in the number of
     // vertices)
     private short vertexWidth;
     private short vertexHeight;
     
+    // The number of meshes with different displacements that the Individuals
+    // share. If it is 0, every Individual has a mesh of its own.
+    private short variantCount;
+    
+    // Counts each time the Individuals are set to be created. Only the
+    // Individuals from the latest count are kept; any others are out of date.
+    private int generation;
+    
     // The number of Individuals that this Population consists of
     private int size;
     
+    // Every random choice made in generating this population is derived from
+    // this. The same seed always generates the same population.
+    private long seed;
+    
     // A multiplier of how much the vertices on an Individual are to be
     // displaced
     private int displacementStrength;
     
     private String name;
     
-    // A matrix for each vertex on the Terrain. The array stores whether or not
-    // an Individual is to appear over a vertex.
-    private boolean locations[][];
+    // The width and depth of the terrain (measured in vertices)
+    private short terrainWidth;
+    private short terrainDepth;
     
-    // The dialog to show the progress of the population's generation
-    private ProgressBarDialog individualProgress;
+    // The vertices on the terrain that an Individual is to appear over, in
+    // the same order as the Individuals. Each vertex is stored as its column
+    // multiplied by the terrain's depth plus its row, so they are sorted by
+    // column and then by row.
+    private int locations[];
     
     // The service used when creating Individuals
     private Service<Individual[]> individualService;
     
+    // The terrain's points that the Individuals being created need to be
+    // re-positioned onto once the service finishes. Null if they do not need
+    // to be.
+    private TerrainPoints pendingPoints;
+    
+    // The terrain's points that the Individuals being created are placed upon
+    private TerrainPoints servicePoints;
+    
     // The maps for each Individual
     private TextureObject bump;
     private TextureObject diffuse;
@@ -83,9 +196,55 @@ public class Population
     // will be displaced
     private TextureObject displacementRange[];
     
+    // The shift amounts taken from the shift map's red, green and blue and the
+    // face sizes taken from the width and height maps, sampled once for each
+    // of the terrain's vertices. A location is the index of its vertex's
+    // values. Each array is replaced rather than changed whenever its map or
+    // the terrain's size changes.
+    private byte xShifts[];
+    private byte yShifts[];
+    private byte zShifts[];
+    private short faceWidths[];
+    private short faceHeights[];
+    
     // Each individual this population consists of
     private Individual individuals[];
     
+    // The Individuals whose meshes the others show. It is empty if every
+    // Individual has a mesh of its own.
+    private Individual variants[];
+    
+    // The meshes the Individuals are merged into. It is empty if they are not
+    // merged.
+    private MergedMesh mergedMeshes[];
+    
+    // The material shared by the merged meshes
+    private PhongMaterial mergedTexture;
+    
+    // Batches of Individuals the service has finished but that have not yet
+    // been shown. Each service is given a queue of its own.
+    private Queue<Individual[]> finishedBatches;
+    
+    // Shows the finished batches once per pulse while the service is running
+    private AnimationTimer streamer;
+    
+    // Everything that shows this population in the preview
+    private Group meshes;
+    
+    // The cells of the grid the views are gathered into. Only the cells that
+    // may be in the camera's view are in the preview.
+    private Group cells[];
+    
+    // The space the camera can see. Null if it has not been given yet.
+    private ViewFrustum frustum;
+    
+    // The camera's eye in the population's coordinates. Null if it has not
+    // been given yet.
+    private Point3D eye;
+    
+    // The camera's distance (in pixels) from the screen
+    private double focalLength;
+    
     /**
      * CONSTRUCTOR
      * 
@@ -93,34 +252,53 @@ public class Population
      *                their Rotate-related values on the x axis
      * @param rotateY The rotation value that Individuals will use to calculate
      *                their Rotate-related values on the y axis
-     * @param terrainWidth The width of the terrain (Measured in vertices)
-     * @param terrainDepth The depth of the terrain (Measured in vertices)
+     * @param widthster The width of the terrain (Measured in vertices)
+     * @param depthster The depth of the terrain (Measured in vertices)
      * @param vertWidth The width of each Individual (Measured in vertices)
      * @param vertHeight The height of each Individual (Measured in vertices)
      * @param strength The strength of the displacement map
      * @param namster The name of the population
      */
-    public Population(short rotateX, short rotateY, short terrainWidth,
-            short terrainDepth, short vertWidth, short vertHeight, int strength, 
+    public Population(short rotateX, short rotateY, short widthster,
+            short depthster, short vertWidth, short vertHeight, int strength, 
             String namster)
     {
         servicePrepared = false;
         
+        merged = false;
+        
+        impostorMode = false;
+        impostorsOutdated = true;
+        impostorSize = DEFAULT_IMPOSTOR_SIZE;
+        
+        compact = false;
+        
+        pendingPoints = null;
+        servicePoints = null;
+        
+        generation = 0;
+        
         size = 0;
         
+        seed = new Random().nextLong();
+        
         displacementStrength = strength;
         
         vertexWidth = vertWidth;
         vertexHeight = vertHeight;
         
-        baseRotateX = rotateX;
-        baseRotateY = rotateY;
+        variantCount = 0;
+        
+        // Rotational values are made negative to rotate correctly
+        facingX = new Rotate(BASE_X_ROTATION - rotateX, Rotate.X_AXIS);
+        facingY = new Rotate(-rotateY, Rotate.Y_AXIS);
         
         name = namster;
         
-        // The dimensions of this array must match the terrain dimensions to
-        // ensure that there is 1 boolean for each vertex on the terrain
-        locations = new boolean[terrainWidth][terrainDepth];
+        terrainWidth = widthster;
+        terrainDepth = depthster;
+        
+        locations = new int[0];
         
         bump = WHITE_TEXTURE;
         specular = WHITE_TEXTURE;
@@ -136,7 +314,95 @@ public class Population
         displacementRange[0] = WHITE_TEXTURE;
         displacementRange[1] = WHITE_TEXTURE;
         
+        sampleShifts();
+        faceWidths = sampleFaceSizes(width);
+        faceHeights = sampleFaceSizes(height);
+        
         individuals = new Individual[0];
+        variants = new Individual[0];
+        
+        mergedMeshes = new MergedMesh[0];
+        mergedTexture = new PhongMaterial();
+        
+        finishedBatches = new ConcurrentLinkedQueue<>();
+        
+        streamer = new AnimationTimer()
+        {
+            @Override
+            public void handle(long now)
+            {
+                showFinishedBatches();
+            }
+        };
+        
+        meshes = new Group();
+        
+        cells = new Group[0];
+        
+        frustum = null;
+        
+        eye = null;
+        focalLength = 0;
+    }
+    
+    /**
+     * Performs the procedures to be used when the service fails. The
+     * Individuals it created so far are thrown away, and the population is
+     * left without Individuals until it is generated again.
+     * 
+     * @param failed The generation that the service failed to finish
+     * 
+     * @return Whether or not the failed service was the one in use
+     */
+    public boolean abandonService(int failed)
+    {
+        boolean current = servicePrepared && failed == generation;
+        
+        // As long as nothing was changed since the service started...
+        if (current)
+        {
+            // ...stop following it, and take down whatever of it was shown.
+            cancelService();
+            
+            servicePoints = null;
+            
+            clearMeshes();
+        }
+        
+        return current;
+    }
+    
+    /**
+     * Shows each Individual that appears smaller than the impostor size by
+     * the impostor of the mesh it shares, and every other Individual by its
+     * mesh. If the shared meshes changed since their impostors were rendered,
+     * the impostors are rendered again first.
+     */
+    private void applyImpostors()
+    {
+        // Impostors only stand in for shared meshes shown in their own views,
+        // and the camera must be known to tell how large anything appears
+        boolean usable = impostorMode && !merged && variants.length > 0
+                && eye != null;
+        
+        // If the impostors are to be used but are out of date...
+        if (usable && impostorsOutdated)
+        {
+            // ...render them again.
+            for (Individual variant : variants)
+            {
+                variant.prepareImpostor();
+            }
+            
+            impostorsOutdated = false;
+        }
+        
+        for (Individual individual : individuals)
+        {
+            individual.setImpostorShown(usable
+                    && individual.getScreenSize(eye, focalLength)
+                    < impostorSize);
+        }
     }
     
     /**
@@ -147,185 +413,284 @@ public class Population
         // Get the spacing that should be between each UV point for the
         // placement map
         double horizontalSpacing = getUVSpacing(placement.getWidth(),
-                locations.length);
+                terrainWidth);
         double verticalSpacing = getUVSpacing(placement.getHeight(),
-                locations[0].length);
+                terrainDepth);
+        
+        // The vertices found so far. It grows as it fills up.
+        int[] foundLocations = new int[Math.max(1, terrainWidth)];
         
         size = 0;
         
         // For each row of the terrain's vertices...
-        for (short i = 0; i < locations.length; i++)
+        for (short i = 0; i < terrainWidth; i++)
         {
+            // Each row has its own stream, so its locations do not depend on
+            // the rows before it
+            SplittableRandom ranster = getRandomStream(seed, LOCATION_STREAMS,
+                    i);
+            
             // ...and for each column of the terrain's vertices...
-            for (short j = 0; j < locations[i].length; j++)
+            for (short j = 0; j < terrainDepth; j++)
             {
                 // This is the inverse of the j variable (so it will refer to
                 // the pixel or Individual at the opposite end). It must be used
                 // with getting the pixel color instead of the regular j
                 // variable to prevent the population from having a mirrored
                 // position on the terrain.
-                int newJ = locations[i].length - j - 1;
+                int newJ = terrainDepth - j - 1;
                 
                 // Get the shade of the corresponding pixel on the placement
                 // image.
                 Color pixelColor = getPixelColor(i, newJ, horizontalSpacing,
                         verticalSpacing, placement);
                 
-                // Calculate whether or not an Individual should be created
-                // there
-                locations[i][j] = isRandomlyBrightEnough(pixelColor);
-                
-                // If one is to be created there...
-                if (locations[i][j])
+                // If an Individual should be created there...
+                if (isRandomlyBrightEnough(pixelColor, ranster))
                 {
-                    // ...increment the number of Individuals to create.
+                    // ...add its vertex, making room for it first if needed.
+                    if (size == foundLocations.length)
+                    {
+                        foundLocations = Arrays.copyOf(foundLocations,
+                                size * 2);
+                    }
+                    
+                    foundLocations[size] = i * terrainDepth + j;
+                    
                     size++;
                 }
             }
         }
+        
+        locations = Arrays.copyOf(foundLocations, size);
     }
     
     /**
-     * Performs the procedures to be used immediately after the service finishes
+     * Stops the Individuals from being created, if they are being created. The
+     * Individuals created so far are thrown away.
      */
-    public void concludeService()
+    public void cancelService()
     {
-        // Get the Individuals created from the service
-        individuals = individualService.getValue();
-        // The service is no longer ready to be used
-        servicePrepared = false;
-        // Reset the service
-        individualService.reset();
+        // If the Individuals are being created...
+        if (servicePrepared)
+        {
+            // ...stop. Whatever the service was working on is now out of
+            // date.
+            generation++;
+            
+            servicePrepared = false;
+            
+            individualService.cancel();
+            
+            streamer.stop();
+        }
+    }
+    
+    /**
+     * Takes every view out of the Group and out of the grid's cells
+     */
+    private void clearMeshes()
+    {
+        meshes.getChildren().clear();
+        
+        for (Group cell : cells)
+        {
+            cell.getChildren().clear();
+        }
+        
+        cells = new Group[0];
+    }
+    
+    /**
+     * Releases the point data and displacement samples that the variants and
+     * Individuals can rebuild, if the population is compact. The Individuals
+     * sharing a variant's mesh only let go of their references to its data.
+     * Individuals still coming in are compacted once they are finished.
+     */
+    private void compactIndividuals()
+    {
+        if (compact && !servicePrepared)
+        {
+            for (Individual variant : variants)
+            {
+                variant.compact();
+            }
+            
+            for (Individual individual : individuals)
+            {
+                individual.compact();
+            }
+        }
+    }
+    
+    /**
+     * Performs the procedures to be used immediately after the service
+     * finishes. If the service's Individuals are out of date, they are thrown
+     * away instead.
+     * 
+     * @param finished The generation that the service finished
+     * 
+     * @return Whether or not the service's Individuals were kept
+     */
+    public boolean concludeService(int finished)
+    {
+        boolean current = servicePrepared && finished == generation;
+        
+        // As long as nothing was changed since the service started...
+        if (current)
+        {
+            // ...get the Individuals created from the service.
+            individuals = individualService.getValue();
+            // The service is no longer ready to be used
+            servicePrepared = false;
+            servicePoints = null;
+            
+            streamer.stop();
+            
+            // The shared meshes and rotations can only be given to the
+            // Individuals from this thread. The maps are applied to the
+            // Individuals as they are, so any changes made to them while the
+            // Individuals were being created are applied now.
+            for (Individual individual : individuals)
+            {
+                individual.attachShared();
+                individual.setFacing(facingX, facingY);
+            }
+            
+            setBump(bump);
+            setDiffuse(diffuse);
+            setSpecular(specular);
+            
+            createMergedMeshes();
+            
+            // If the terrain changed shape while the Individuals were being
+            // created...
+            if (pendingPoints != null)
+            {
+                // ...move them onto its new shape.
+                reposition(pendingPoints);
+            }
+            
+            // The Individuals shown so far are swapped for the finished
+            // population
+            refreshMeshes();
+            
+            // Now that the meshes are built and baked, what they were built
+            // from can be released
+            compactIndividuals();
+        }
         
-        // Close the progress dialog
-        individualProgress.close();
+        return current;
     }
     
     /**
      * Creates an Individual for this population
      * 
-     * @param locationX The x position (measured in vertices on the terrain) of
-     *                  the terrain's vertex to which this Individual will be
-     *                  placed adjacent to
-     * @param locationY The y position (measured in vertices on the terrain) of
-     *                  the terrain's vertex to which this Individual will be
-     *                  placed adjacent to
-     * @param terrainWidth The width of the terrain (measured in vertices)
+     * @param shiftX How far the Individual is shifted on the x scale
+     * @param shiftY How far the Individual is shifted on the y scale
+     * @param shiftZ How far the Individual is shifted on the z scale
+     * @param faceWidth The width of each of the Individual's faces
+     * @param faceHeight The height of each of the Individual's faces
      * @param vWidth The width of each Individual (measured in vertices)
      * @param vHeight The height of each Individual (measured in vertices)
-     * @param xRotate The currently set base vertical rotation value
-     * @param yRotate The currently set base horizontal rotation value
      * @param dStrength The displacement strength
-     * @param xShiftSpace The distance between each pixel on the shift map to be
-     *                    returned for an Individual on the image's x axis
-     * @param yShiftSpace The distance between each pixel on the shift map to be
-     *                    returned for an Individual on the image's y axis
-     * @param xWidthSpace The distance between each pixel on the width map to be
-     *                    returned for an Individual on the image's x axis
-     * @param yWidthSpace The distance between each pixel on the width map to be
-     *                    returned for an Individual on the image's y axis
-     * @param xHeightSpace The distance between each pixel on the height map to
-     *                     be returned for an Individual on the image's x axis
-     * @param yHeightSpace The distance between each pixel on the height map to
-     *                     be returned for an Individual on the image's y axis
-     * @param terrainPoints The array of point positions used in the creation of
-     *                      the terrain
+     * @param basePoints The positions of the terrain's vertices that
+     *                   Individuals are placed at
+     * @param pointIndex The index in the base point array of this Individual's
+     *                   base point
      * @param bumpster The bump map for this population
      * @param difster The diffuse map for this population
-     * @param shiftster The shift map for this population
      * @param specster The specular map for this population
-     * @param widther The width map for this population
-     * @param heightster The height map for this population
-     * @param dRange The 2 displacement maps used to define the range to which
-     *               a displacement map will be generated for this Individual
-     */
-    private Individual createIndividual(short locationX, short locationY,
-            short terrainWidth, short vWidth, short vHeight, short xRotate,
-            short yRotate, int dStrength, double xShiftSpace,
-            double yShiftSpace, double xWidthSpace, double yWidthSpace,
-            double xHeightSpace, double yHeightSpace, float[] terrainPoints,
+     * @param generster Generates the displacement samples for this
+     *                  Individual within the range of the 2 displacement maps
+     * @param variants The Individuals whose meshes are shared. If there are
+     *                 none, the Individual is given a mesh of its own.
+     * @param ranster The random stream for this Individual
+     */
+    private Individual createIndividual(byte shiftX, byte shiftY,
+            byte shiftZ, short faceWidth, short faceHeight, short vWidth,
+            short vHeight, int dStrength, float[] basePoints, int pointIndex,
             TextureObject bumpster,  TextureObject difster,
-            TextureObject shiftster, TextureObject specster,
-            TextureObject widthster, TextureObject heightster,
-            TextureObject[] dRange)
-    {
-        // The shift adjustments for the Individual
-        byte shiftX;
-        byte shiftY;
-        byte shiftZ;
-        
-        // The width and height multipliers to determine the size of
-        // the Individual's faces
-        short faceWidth;
-        short faceHeight;
-             
-        int pointIndex = getBasePointIndex(locationX, locationY, terrainWidth);
-            
-                    
+            TextureObject specster, DisplacementGenerator generster,
+            Individual[] variants, SplittableRandom ranster)
+    {
         // The position of the point on the terrain to which this
         // new Individual will belong
-        int x = (int)terrainPoints[pointIndex];
-        int y = (int)terrainPoints[pointIndex + 1];
-        int z = (int)terrainPoints[pointIndex + 2];
-             
-        // Get the correct pixel colors for this Individual
-        Color shiftColor = getPixelColor(locationX, locationY, xShiftSpace,
-                yShiftSpace, shiftster);
-        Color widthColor = getPixelColor(locationX, locationY, xWidthSpace,
-                yWidthSpace, widthster);
-        Color heightColor = getPixelColor(locationX, locationY, xHeightSpace,
-                yHeightSpace, heightster);
+        int x = (int)basePoints[pointIndex];
+        int y = (int)basePoints[pointIndex + 1];
+        int z = (int)basePoints[pointIndex + 2];
         
         Individual newIndividual;
         
-        // The values used to determine how far the Individual is to be shifted
-        // from its default position
-        shiftX = getColorValue(true, 'r', shiftColor);
-        shiftY = getColorValue(true, 'g', shiftColor);
-        shiftZ = getColorValue(true, 'b', shiftColor);
-                    
-        // The values returned from these functions are too large
-        // for the width and height, so it is divided to a smaller
-        // value
-        faceWidth = (short)(getColorValue(false, ' ', widthColor)
-                / SIZE_DIVIDER);
-        faceHeight = (short)(getColorValue(false, ' ', heightColor)
-                / SIZE_DIVIDER);
-                            
-        Image displacement = generateDisplacement(vWidth, vHeight, dRange);
-        
-        newIndividual = new Individual(shiftX, shiftY, shiftZ, faceWidth,
-                faceHeight, vWidth, vHeight, xRotate, yRotate, dStrength, x, y,
-                z, displacement);
-        
-        newIndividual.load();
-        
-        newIndividual.setDiffuse(difster.getImage());
-        newIndividual.setBump(bumpster.getImage());
-        newIndividual.setSpecular(specster.getImage());
+        // If the Individuals do not share meshes...
+        if (variants.length == 0)
+        {
+            // ...generate one for this Individual.
+            DisplacementBuffer samplester = generster.generate(ranster);
+            
+            newIndividual = new Individual(shiftX, shiftY, shiftZ, faceWidth,
+                    faceHeight, vWidth, vHeight, dStrength,
+                    x, y, z, samplester);
+            
+            newIndividual.load();
+            
+            newIndividual.setDiffuse(difster.getImage());
+            newIndividual.setBump(bumpster.getImage());
+            newIndividual.setSpecular(specster.getImage());
+        }
+        // ...otherwise...
+        else
+        {
+            // ...show a randomly chosen variant's mesh.
+            Individual variant = variants[
+                    (int)getRandomNumber(0, variants.length, ranster)];
+            
+            newIndividual = new Individual(variant, shiftX, shiftY, shiftZ,
+                    faceWidth, faceHeight, x, y, z);
+            
+            newIndividual.load();
+        }
         
         return newIndividual;
     }
     
     /**
-     * (Re)creates all of the Individuals for this population
+     * (Re)creates all of the Individuals for this population. Individuals that
+     * are already at one of the locations are kept rather than created again.
      * 
+     * @param actionDescription A description of the change being made to the
+     *                          population. It is used as the progress dialog's
+     *                          title.
      * @param terrainPoints The positions of each vertex in the terrain
+     * @param oldLocations The locations of the Individuals that may be kept
+     * @param oldIndividuals The Individuals that may be kept, in the same order
+     *                       as their locations
      */
     private void createIndividuals(String actionDescription,
-            float[] terrainPoints)
+            TerrainPoints terrainPoints, int[] oldLocations,
+            Individual[] oldIndividuals)
     {
-        DeepCloner cloner = new DeepCloner();
+        // Whatever is still being created is out of date now
+        cancelService();
+        
+        generation++;
+        
+        servicePoints = terrainPoints;
+        
+        // The Individuals are shown again as they are created
+        clearMeshes();
+        
+        final Queue<Individual[]> FINISHED_BATCHES
+                = new ConcurrentLinkedQueue<>();
+        
+        finishedBatches = FINISHED_BATCHES;
         
         // Constants of global variables. These are used in the service instead
         // of the original variables to avoid the possibility their values from
         // being changed by the outside thread while still in use by the
         // service.
-        final short BASE_ROTATE_X = baseRotateX;
-        final short BASE_ROTATE_Y = baseRotateY;
-        
-        final short TERRAIN_WIDTH = (short)locations.length;
-        final short TERRAIN_DEPTH = (short)locations[0].length;
+        final short TERRAIN_WIDTH = terrainWidth;
+        final short TERRAIN_DEPTH = terrainDepth;
         
         final short VERTEX_WIDTH = vertexWidth;
         final short VERTEX_HEIGHT = vertexHeight;
@@ -334,34 +699,41 @@ public class Population
         
         final int SIZE = size;
         
-        // The distance between each pixel on a map being retrieved for an
-        // Individual (measured in pixels)
-        final double X_SHIFT_SPACE = getUVSpacing(shift.getWidth(),
-                TERRAIN_WIDTH);
-        final double Y_SHIFT_SPACE = getUVSpacing(shift.getHeight(),
-                TERRAIN_DEPTH);
-        final double X_WIDTH_SPACE = getUVSpacing(width.getWidth(),
-                TERRAIN_WIDTH);
-        final double Y_WIDTH_SPACE = getUVSpacing(width.getHeight(),
-                TERRAIN_DEPTH);
-        final double X_HEIGHT_SPACE = getUVSpacing(height.getWidth(),
-                TERRAIN_WIDTH);
-        final double Y_HEIGHT_SPACE = getUVSpacing(height.getHeight(),
-                TERRAIN_DEPTH);
+        final long SEED = seed;
+        
+        // The index of the Individual kept at each location, or -1 for the
+        // locations that need a new one
+        final int[] KEPT = matchLocations(oldLocations, oldIndividuals);
+        
+        final Individual[] OLD_INDIVIDUALS = oldIndividuals;
+        final Individual[] VARIANTS = variants;
+        
+        // The shifts and face sizes sampled from the maps. Like the
+        // locations, the arrays are replaced rather than changed, so they do
+        // not need to be copied.
+        final byte[] X_SHIFTS = xShifts;
+        final byte[] Y_SHIFTS = yShifts;
+        final byte[] Z_SHIFTS = zShifts;
+        final short[] FACE_WIDTHS = faceWidths;
+        final short[] FACE_HEIGHTS = faceHeights;
         
         final TextureObject BUMP = bump.getCopy();
-        final TextureObject SHIFT = shift.getCopy();
         final TextureObject SPECULAR = specular.getCopy();
         final TextureObject DIFFUSE = diffuse.getCopy();
-        final TextureObject WIDTH = width.getCopy();
-        final TextureObject HEIGHT = height.getCopy();
         
-        final float[] TERRAIN_POINTS = cloner.clone(terrainPoints);
+        final float[] BASE_POINTS = getBasePoints(terrainPoints);
+        
+        // The Individuals are created upon the terrain's latest points, so
+        // any earlier re-positioning waiting for them is no longer needed
+        pendingPoints = null;
         
-        final TextureObject[] DISPLACEMENT_RANGE
-                = cloner.clone(displacementRange);
+        // The displacement maps are read here once for every Individual
+        final DisplacementGenerator DISPLACEMENT_GENERATOR
+                = getDisplacementGenerator();
         
-        final boolean[][] LOCATIONS = cloner.clone(locations);
+        // The array is replaced rather than changed whenever the locations
+        // are re-calculated, so it does not need to be copied
+        final int[] LOCATIONS = locations;
         
         individualService = new Service<Individual[]>()
         {
@@ -371,61 +743,99 @@ public class Population
                 return new Task<Individual[]>()
                 {
                     @Override
-                    protected Individual[] call()
+                    protected Individual[] call() throws Exception
                     {
-                        // Counter variable assigning newly created Individuals
-                        // to the array
-                        int currentIndex = 0;
-                
-                        // Used for keeping track of progress for the progress
-                        // bar
-                        int done = TERRAIN_WIDTH * TERRAIN_DEPTH;
-                        int progress = 0;
-                
                         Individual[] newIndividuals = new Individual[SIZE];
-                
-                        // For each row of vertices on the terrain...
-                        for (short i = 0; i < TERRAIN_WIDTH; i++)
+                        
+                        // Used for keeping track of progress for the progress
+                        // bar. It is counted by every thread.
+                        AtomicInteger progress = new AtomicInteger(0);
+                        
+                        List<Future<?>> batches = new ArrayList<>();
+                        
+                        // Split the Individuals into batches to be created by
+                        // the threads. Each Individual goes into its own
+                        // place in the array, so the threads never write to
+                        // the same place.
+                        for (int first = 0; first < SIZE;
+                                first = first + BATCH_SIZE)
                         {
-                            // ...and for each column of vertices on the
-                            // terrain...
-                            for (short j = 0; j < TERRAIN_DEPTH; j++)
+                            final int FIRST = first;
+                            final int END = Math.min(first + BATCH_SIZE, SIZE);
+                            
+                            batches.add(GENERATORS.submit(() ->
                             {
-                                // ...if an Individual is to be created there...
-                                if (LOCATIONS[i][j])
+                                // Once the task is cancelled, the rest of the
+                                // batch is skipped
+                                for (int k = FIRST; k < END && !isCancelled();
+                                        k++)
                                 {
-                                    
-                                    // ...create a new Individual.
-                                    Individual newIndividual =
-                                            createIndividual(i, j,
-                                                    TERRAIN_WIDTH, VERTEX_WIDTH,
-                                                    VERTEX_HEIGHT,
-                                                    BASE_ROTATE_X,
-                                                    BASE_ROTATE_Y,
-                                                    DISPLACEMENT_STRENGTH, 
-                                                    X_SHIFT_SPACE,
-                                                    Y_SHIFT_SPACE,
-                                                    X_WIDTH_SPACE,
-                                                    Y_WIDTH_SPACE,
-                                                    X_HEIGHT_SPACE,
-                                                    Y_HEIGHT_SPACE,
-                                                    TERRAIN_POINTS, BUMP,
-                                                    DIFFUSE, SHIFT, SPECULAR,
-                                                    WIDTH, HEIGHT,
-                                                    DISPLACEMENT_RANGE);
-                                    
-                                    // Add the new Individual to the new array
-                                    newIndividuals[currentIndex] =
-                                            newIndividual;
-                            
-                                    currentIndex++;
+                                    // If an Individual was already at
+                                    // this location...
+                                    if (KEPT[k] >= 0)
+                                    {
+                                        // ...keep it.
+                                        newIndividuals[k]
+                                                = OLD_INDIVIDUALS[KEPT[k]];
+                                    }
+                                    // ...otherwise...
+                                    else
+                                    {
+                                        // ...create one. Its randomness comes
+                                        // from its location, so it is the
+                                        // same however many others are kept.
+                                        int location = LOCATIONS[k];
+                                        
+                                        newIndividuals[k] = createIndividual(
+                                                X_SHIFTS[location],
+                                                Y_SHIFTS[location],
+                                                Z_SHIFTS[location],
+                                                FACE_WIDTHS[location],
+                                                FACE_HEIGHTS[location],
+                                                VERTEX_WIDTH, VERTEX_HEIGHT,
+                                                DISPLACEMENT_STRENGTH,
+                                                BASE_POINTS,
+                                                k * THREE_DIMENSIONS, BUMP,
+                                                DIFFUSE, SPECULAR,
+                                                DISPLACEMENT_GENERATOR,
+                                                VARIANTS, getRandomStream(SEED,
+                                                INDIVIDUAL_STREAMS, location));
+                                    }
+                                    updateProgress(progress.incrementAndGet(),
+                                            SIZE);
                                 }
                                 
-                                updateProgress(progress, done);
-                                progress++;
+                                // As long as the whole batch was created, it
+                                // can be shown before the rest are finished
+                                if (!isCancelled())
+                                {
+                                    FINISHED_BATCHES.add(Arrays.copyOfRange(
+                                            newIndividuals, FIRST, END));
+                                }
+                            }));
+                        }
+                        
+                        // Wait for every batch to finish. If any Individual
+                        // could not be created, the task fails with its
+                        // exception. If the task is cancelled while waiting,
+                        // the batches not yet started are dropped.
+                        try
+                        {
+                            for (Future<?> batster : batches)
+                            {
+                                batster.get();
+                            }
+                        }
+                        catch (InterruptedException ex)
+                        {
+                            for (Future<?> batster : batches)
+                            {
+                                batster.cancel(false);
                             }
+                            
+                            throw ex;
                         }
-             
+                        
                         return newIndividuals;
                     }
                 };
@@ -436,96 +846,152 @@ public class Population
     }
     
     /**
-     * Generates a displacement map with pixels within the range of the 2
-     * displacement maps using the provided parameters
-     * 
-     * @param vWidth The width of each Individual (measured in vertices)
-     * @param vHeight The height of each Individual (measured in vertices)
-     * @param range The 2 displacement maps that act as the range of values a
-     *              new displacement map is generated from
-     * 
-     * @return A displacement map with pixels within the range of the 2
-     *         displacement maps
+     * (Re)creates the meshes that the Individuals are merged into, if they are
+     * to be merged
      */
-    private Image generateDisplacement(short vWidth, short vHeight,
-            TextureObject[] range)
+    private void createMergedMeshes()
     {
-        // Get the spacing that should be between each UV point for the
-        // placement map
-        double[] widthDisplacementSpacings = new double[2];
-        double[] heightDisplacementSpacings = new double[2];
-        
-        widthDisplacementSpacings[0]
-                = getUVSpacing(range[0].getWidth(), vWidth);
-        heightDisplacementSpacings[0]
-                = getUVSpacing(range[0].getHeight(), vHeight);
-        widthDisplacementSpacings[1]
-                = getUVSpacing(range[1].getWidth(), vWidth);
-        heightDisplacementSpacings[1]
-                = getUVSpacing(range[1].getHeight(), vHeight);
-        
-        // The generated map
-        WritableImage newDisplacement = new WritableImage(vWidth,
-                vHeight);
-        PixelWriter writster = newDisplacement.getPixelWriter();
-        
-        // For each row of vertices on the Individual...
-        for (byte i = 0; i < vWidth; i++)
-        {
-            // ...and for each column of vertices...
-            for (byte j = 0; j < vHeight; j++)
+        // If the Individuals are to be merged...
+        if (merged)
+        {
+            // ...split them into groups small enough for each to stay within
+            // the vertex limit.
+            int groupSize = Math.max(1,
+                    MERGED_MESH_VERTICES / (vertexWidth * vertexHeight));
+            int groupAmount = (individuals.length + groupSize - 1) / groupSize;
+            
+            mergedTexture.setDiffuseMap(diffuse.getImage());
+            mergedTexture.setBumpMap(bump.getImage());
+            mergedTexture.setSpecularMap(specular.getImage());
+            
+            mergedMeshes = new MergedMesh[groupAmount];
+            
+            for (int i = 0; i < groupAmount; i++)
             {
-                // Color for how the vertex is to be displaced
-                Color randomColor;
-                
-                // The 2 colors representing the smallest and largest possible
-                // values of red, green and blue for the randomly generated
-                // pixel color
-                Color pixelColors[] = new Color[2];
-                
-                pixelColors[0] = getPixelColor(i, j,
-                        widthDisplacementSpacings[0],
-                        heightDisplacementSpacings[0], range[0]);
-                pixelColors[1] = getPixelColor(i, j,
-                        widthDisplacementSpacings[1],
-                        heightDisplacementSpacings[1], range[1]);
-                
-                randomColor = getRandomColor(pixelColors);
+                int first = i * groupSize;
+                int end = Math.min(first + groupSize, individuals.length);
                 
-                writster.setColor(i, j, randomColor);
+                mergedMeshes[i] = new MergedMesh(
+                        Arrays.copyOfRange(individuals, first, end),
+                        vertexWidth, vertexHeight, mergedTexture);
             }
         }
+        // ...otherwise...
+        else
+        {
+            // ...the Individuals are shown by their own views.
+            mergedMeshes = new MergedMesh[0];
+        }
+    }
+    
+    /**
+     * (Re)creates the Individuals whose meshes and materials are shared by the
+     * others. They are not placed anywhere themselves. As there are only a few
+     * of them, they are created straight away rather than by the service.
+     */
+    private void createVariants()
+    {
+        final byte NO_SHIFT = 0;
+        
+        // There is no use in having more variants than Individuals
+        variants = new Individual[Math.min(variantCount, size)];
         
-        return newDisplacement;
+        // The new variants have no impostors yet
+        impostorsOutdated = true;
+        
+        DisplacementGenerator generster = getDisplacementGenerator();
+        
+        for (int v = 0; v < variants.length; v++)
+        {
+            DisplacementBuffer samplester = generster.generate(
+                    getRandomStream(seed, VARIANT_STREAMS, v));
+            
+            variants[v] = new Individual(NO_SHIFT, NO_SHIFT, NO_SHIFT,
+                    VARIANT_FACE_SIZE, VARIANT_FACE_SIZE, vertexWidth,
+                    vertexHeight, displacementStrength, 0, 0, 0,
+                    samplester);
+            
+            variants[v].load();
+            
+            variants[v].setDiffuse(diffuse.getImage());
+            variants[v].setBump(bump.getImage());
+            variants[v].setSpecular(specular.getImage());
+        }
     }
     
     /**
-     * Gets the index of the point in the terrain's point array to which an
-     * Individual's position will be based upon
-     * 
-     * @param locationX The column of vertices on the terrain that contains the
-     *                  base point
-     * @param locationY The row of vertices on the terrain that contains the
-     *                  base point
-     * @param terrainWidth The width of the terrain (measured in vertices)
+     * Puts only the cells that may be in the camera's view into the Group. If
+     * the camera's view has not been given, every cell is put in.
+     */
+    private void cull()
+    {
+        List<Node> shown = new ArrayList<>();
+        
+        for (Group cell : cells)
+        {
+            if (frustum == null || frustum.intersects(cell.getBoundsInParent()))
+            {
+                shown.add(cell);
+            }
+        }
+        
+        meshes.getChildren().setAll(shown);
+    }
+    
+    /**
+     * Generates new displacement samples for each of the Individuals with a
+     * mesh of their own. Each Individual's samples are generated from the same
+     * random stream as when the Individual was created, so only the attributes
+     * that changed make any difference to them. The samples are generated in
+     * parallel.
      * 
-     * @return The index in the terrain's point array of an Individual's base
-     *         point
+     * @return The displacement samples in the same order as the Individuals
      */
-    private int getBasePointIndex(short locationX, short locationY,
-            short terrainWidth)
+    private DisplacementBuffer[] generateDisplacements()
     {
-        // The row of vertices in the terrain that the base point belongs to
-        int row = locationY * terrainWidth;
+        DisplacementBuffer[] displacements
+                = new DisplacementBuffer[individuals.length];
+        
+        DisplacementGenerator generster = getDisplacementGenerator();
         
-        // The numbered vertex that is a base point if the terrain's vertices
-        // are numbered left-to-right, up-to-down
-        int position = row + locationX;
+        IntStream.range(0, individuals.length).parallel().forEach(k ->
+        {
+            displacements[k] = generster.generate(getRandomStream(seed,
+                    INDIVIDUAL_STREAMS, locations[k]));
+        });
+        
+        return displacements;
+    }
+    
+    /**
+     * Gets the positions of the terrain's vertices that Individuals are to be
+     * placed at. Only the vertices with an Individual are copied, so the copy
+     * stays small however large the terrain is.
+     * 
+     * @param terrainPoints The positions of each vertex in the terrain
+     * 
+     * @return The positions of the base points in the order that the
+     *         Individuals are created
+     */
+    private float[] getBasePoints(TerrainPoints terrainPoints)
+    {
+        float[] basePoints = new float[locations.length * THREE_DIMENSIONS];
         
-        // Factor in the fact that there are 3 vertices for each point
-        int index = position * THREE_DIMENSIONS;
+        // For each vertex an Individual is to be created at...
+        for (int k = 0; k < locations.length; k++)
+        {
+            short column = getColumn(locations[k]);
+            short row = getRow(locations[k]);
+            
+            int index = k * THREE_DIMENSIONS;
+            
+            // ...copy its position.
+            basePoints[index] = terrainPoints.getX(column, row);
+            basePoints[index + 1] = terrainPoints.getY(column, row);
+            basePoints[index + 2] = terrainPoints.getZ(column, row);
+        }
         
-        return index;
+        return basePoints;
     }
     
     /**
@@ -549,28 +1015,34 @@ public class Population
      * @param channel The color channel to perform the calculations from. 'r' is
      *                for red. 'g' is for green. 'b' is for blue. Any other
      *                character will return the brightness.
-     * @param colster The given color
+     * @param pixel The given color as an ARGB value
      * 
      * @return A random number
      */
-    private byte getColorValue(boolean negativeRange, char channel,
-            Color colster)
+    private byte getColorValue(boolean negativeRange, char channel, int pixel)
     {
         byte colorValue;
         
+        // The amounts (ranging 0.0 - 1.0) of each channel
+        double red = ((pixel >> RED_SHIFT) & CHANNEL_MASK) / CHANNEL_MAX;
+        double green = ((pixel >> GREEN_SHIFT) & CHANNEL_MASK) / CHANNEL_MAX;
+        double blue = (pixel & CHANNEL_MASK) / CHANNEL_MAX;
+        
         switch (channel)
         {
             case 'r':
-                colorValue = (byte)(colster.getRed() * COLOR_ADJUSTMENT);
+                colorValue = (byte)(red * COLOR_ADJUSTMENT);
                 break;
             case 'g':
-                colorValue = (byte)(colster.getGreen() * COLOR_ADJUSTMENT);
+                colorValue = (byte)(green * COLOR_ADJUSTMENT);
                 break;
             case 'b':
-                colorValue = (byte)(colster.getBlue() * COLOR_ADJUSTMENT);
+                colorValue = (byte)(blue * COLOR_ADJUSTMENT);
                 break;
             default:
-                colorValue = (byte)(colster.getBrightness() * COLOR_ADJUSTMENT);
+                // The brightest channel is the color's brightness
+                colorValue = (byte)(Math.max(red, Math.max(green, blue))
+                        * COLOR_ADJUSTMENT);
         }
         
         // If the value should not be negative...
@@ -584,26 +1056,63 @@ public class Population
     }
     
     /**
-     * Gets the currently set displacement strength for this Population
+     * Gets the column of the terrain that a location is in
      * 
-     * @return The currently set displacement strength for this Population
+     * @param location The location, as stored in the locations array
+     * 
+     * @return The column (measured in vertices)
      */
-    public int getDisplacementStrength()
+    private short getColumn(int location)
     {
-        return displacementStrength;
+        return (short)(location / terrainDepth);
     }
     
     /**
-     * Gets the first displacement map used in the displacement range
+     * Gets a generator for the displacement samples of Individuals of the
+     * currently set size, within the range of the 2 displacement maps
      * 
-     * @return A TextureObject of the first displacement map used in the
-     *         displacement range
+     * @return The displacement generator
      */
-    public TextureObject getFirstDisplacement()
+    private DisplacementGenerator getDisplacementGenerator()
+    {
+        return new DisplacementGenerator(vertexWidth, vertexHeight,
+                displacementRange[0].getImage(),
+                displacementRange[1].getImage());
+    }
+    
+    /**
+     * Gets the currently set displacement strength for this Population
+     * 
+     * @return The currently set displacement strength for this Population
+     */
+    public int getDisplacementStrength()
+    {
+        return displacementStrength;
+    }
+    
+    /**
+     * Gets the first displacement map used in the displacement range
+     * 
+     * @return A TextureObject of the first displacement map used in the
+     *         displacement range
+     */
+    public TextureObject getFirstDisplacement()
     {
         return displacementRange[0];
     }
     
+    /**
+     * Gets the count of how many times the Individuals have been set to be
+     * created. A service's Individuals are only kept if nothing has been
+     * changed since it was started.
+     * 
+     * @return The current generation
+     */
+    public int getGeneration()
+    {
+        return generation;
+    }
+    
     /**
      * Gets the map used to specify the height of the Individuals in this
      * population
@@ -616,6 +1125,17 @@ public class Population
         return height;
     }
     
+    /**
+     * Gets the size that an Individual must appear smaller than to be shown by
+     * an impostor
+     * 
+     * @return The size (in pixels on the screen)
+     */
+    public short getImpostorSize()
+    {
+        return impostorSize;
+    }
+    
     /**
      * Gets the name of this population
      * 
@@ -676,59 +1196,21 @@ public class Population
     }
     
     /**
-     * Gets the population of individual meshes
+     * Gets the population of individual meshes. While the Individuals are
+     * being created, the Group fills in as they are finished.
      * 
      * @return a Group of the population's meshes
      */
     public Group getMeshes()
     {
-        Group groupster = new Group();
-        
-        for (Individual individual : individuals)
+        // As long as the Individuals are not still coming in...
+        if (!servicePrepared)
         {
-            groupster.getChildren().add(individual.getMeshView());
+            // ...make sure the Group shows them as they are now.
+            refreshMeshes();
         }
         
-        return groupster;
-    }
-    
-    /**
-     * Gets a random color that is between each of the red, green and blue
-     * values of the 2 given pixels
-     * 
-     * @param colors An array containing the 2 colors that determine the range
-     * 
-     * @return A random color that is between the 2 given pixels
-     */
-    private Color getRandomColor(Color[] colors)
-    {
-        // The color values for the random color
-        double newRed;
-        double newGreen;
-        double newBlue;
-        
-        // The min and max color values for the color range
-        double reds[] = new double[2];
-        double greens[] = new double[2];
-        double blues[] = new double[2];
-        
-        // The random color
-        Color newColor;
-        
-        reds[0] = colors[0].getRed();
-        reds[1] = colors[1].getRed();
-        greens[0] = colors[0].getGreen();
-        greens[1] = colors[1].getGreen();
-        blues[0] = colors[0].getBlue();
-        blues[1] = colors[1].getBlue();
-        
-        newRed = getRandomNumber(reds[0], reds[1]);
-        newGreen = getRandomNumber(greens[0], greens[1]);
-        newBlue = getRandomNumber(blues[0], blues[1]);
-        
-        newColor = new Color(newRed, newGreen, newBlue, 1.0);
-        
-        return newColor;
+        return meshes;
     }
     
     /**
@@ -736,22 +1218,57 @@ public class Population
      * 
      * @param min The least possible value
      * @param max The most possible value
+     * @param ranster The random stream the number is taken from
      * 
      * @return A random number between the 2 given values
      */
-    private double getRandomNumber(double min, double max)
+    private double getRandomNumber(double min, double max,
+            SplittableRandom ranster)
     {
         double difference = max - min;
         
         double newNumber;
         
-        Random ranster = new Random();
-        
         newNumber = ranster.nextDouble() * difference + min;
         
         return newNumber;
     }
     
+    /**
+     * Gets a random stream derived from a seed. Each stream depends only on the
+     * seed, its kind and its index, so the same seed gives the same numbers no
+     * matter how many threads the streams are shared between or in what order
+     * they are used.
+     * 
+     * @param seedster The seed the stream is derived from
+     * @param kind What the stream is used for
+     * @param index The row, Individual or variant that the stream is for
+     * 
+     * @return The random stream
+     */
+    private SplittableRandom getRandomStream(long seedster, byte kind,
+            int index)
+    {
+        // The stream's own seed is scrambled from where it lies among the
+        // others, so that neighboring streams are unrelated
+        long streamSeed = new SplittableRandom(seedster + kind * STREAM_GAP
+                + index).nextLong();
+        
+        return new SplittableRandom(streamSeed);
+    }
+    
+    /**
+     * Gets the row of the terrain that a location is in
+     * 
+     * @param location The location, as stored in the locations array
+     * 
+     * @return The row (measured in vertices)
+     */
+    private short getRow(int location)
+    {
+        return (short)(location % terrainDepth);
+    }
+    
     /**
      * Gets the second displacement map used to specify the displacement range
      * 
@@ -773,6 +1290,45 @@ public class Population
         return individualService;
     }
     
+    /**
+     * Gets the number of bytes of point data and displacement samples that
+     * the population is not holding because it is compact. Only the variants,
+     * or the Individuals when they have meshes of their own, hold any.
+     * 
+     * @return The number of bytes reclaimed
+     */
+    public long getReclaimedBytes()
+    {
+        long reclaimed = 0;
+        
+        Individual[] holders = individuals;
+        
+        // If the Individuals share meshes...
+        if (variants.length > 0)
+        {
+            // ...only the variants hold data of their own.
+            holders = variants;
+        }
+        
+        for (Individual holster : holders)
+        {
+            reclaimed = reclaimed + holster.getReleasedBytes();
+        }
+        
+        return reclaimed;
+    }
+    
+    /**
+     * Gets the seed that every random choice in generating this population is
+     * derived from
+     * 
+     * @return The seed
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+    
     /**
      * Gets the shift map assigned to this population
      * 
@@ -817,6 +1373,18 @@ public class Population
         return length / vertexAmount;
     }
     
+    /**
+     * Gets the number of meshes with different displacements that the
+     * Individuals share
+     * 
+     * @return The number of shared meshes. It is 0 if every Individual has a
+     *         mesh of its own.
+     */
+    public short getVariantCount()
+    {
+        return variantCount;
+    }
+    
     /**
      * Gets the height of each Individual measured in vertices
      * 
@@ -855,16 +1423,18 @@ public class Population
      * resulting with true.
      * 
      * @param shade The color that the function's probability is based upon
+     * @param ranster The random stream the boolean is taken from
      * 
      * @return A random boolean
      */
-    private boolean isRandomlyBrightEnough(Color shade)
+    private boolean isRandomlyBrightEnough(Color shade,
+            SplittableRandom ranster)
     {
         boolean brightEnough;
         
         double brightness = shade.getBrightness();
         
-        double randomValue = getRandomNumber(0, 1);
+        double randomValue = getRandomNumber(0, 1, ranster);
         
         // Whether or not the color happens to be bright enough for the random
         // value
@@ -873,6 +1443,39 @@ public class Population
         return brightEnough;
     }
     
+    /**
+     * Gets whether or not the Individuals release the data that they can
+     * rebuild once their meshes are built
+     * 
+     * @return Whether or not the population is compact
+     */
+    public boolean isCompact()
+    {
+        return compact;
+    }
+    
+    /**
+     * Gets whether or not the Individuals far from the camera are shown by
+     * impostors
+     * 
+     * @return Whether or not impostors are used
+     */
+    public boolean isImpostorMode()
+    {
+        return impostorMode;
+    }
+    
+    /**
+     * Gets whether or not the Individuals are shown merged into a few large
+     * meshes
+     * 
+     * @return Whether or not the Individuals are merged
+     */
+    public boolean isMerged()
+    {
+        return merged;
+    }
+    
     /**
      * Gets whether or not the service is ready for use (or in use)
      * 
@@ -891,14 +1494,178 @@ public class Population
      *                          title.
      * @param terrainPoints The point data used to create the terrain's MeshView
      */
-    public void load(String actionDescription, float[] terrainPoints)
+    public void load(String actionDescription, TerrainPoints terrainPoints)
     {
         // Remove all Individuals
         individuals = new Individual[0];
+        mergedMeshes = new MergedMesh[0];
         
         calculateLocations();
+        
+        createVariants();
+        
+        createIndividuals(actionDescription, terrainPoints, new int[0],
+                new Individual[0]);
+    }
+    
+    /**
+     * Finds the Individuals that are already at the current locations
+     * 
+     * @param oldLocations The locations of the Individuals that may be kept
+     * @param oldIndividuals The Individuals that may be kept, in the same order
+     *                       as their locations
+     * 
+     * @return The index of the Individual already at each current location,
+     *         or -1 for the locations without one
+     */
+    private int[] matchLocations(int[] oldLocations,
+            Individual[] oldIndividuals)
+    {
+        int[] kept = new int[locations.length];
+        
+        Arrays.fill(kept, -1);
+        
+        // As long as each old location has its Individual...
+        if (oldLocations.length == oldIndividuals.length)
+        {
+            // ...walk through both sorted lists of locations together, matching
+            // the ones they share.
+            int oldIndex = 0;
+            
+            for (int k = 0; k < locations.length; k++)
+            {
+                while (oldIndex < oldLocations.length
+                        && oldLocations[oldIndex] < locations[k])
+                {
+                    oldIndex++;
+                }
                 
-        createIndividuals(actionDescription, terrainPoints);
+                if (oldIndex < oldLocations.length
+                        && oldLocations[oldIndex] == locations[k])
+                {
+                    kept[k] = oldIndex;
+                }
+            }
+        }
+        // ...otherwise, the old Individuals are still being created, so none
+        // of them can be kept.
+        
+        return kept;
+    }
+    
+    /**
+     * Generates new displacement samples for the Individuals, keeping
+     * everything else about them. Where the Individuals share meshes, only the
+     * shared meshes are displaced again.
+     */
+    private void redisplaceIndividuals()
+    {
+        // If the Individuals share meshes...
+        if (variants.length > 0)
+        {
+            // ...only those few meshes need to be displaced again.
+            DisplacementGenerator generster = getDisplacementGenerator();
+            
+            for (int v = 0; v < variants.length; v++)
+            {
+                variants[v].setDisplacementSamples(generster.generate(
+                        getRandomStream(seed, VARIANT_STREAMS, v)));
+            }
+        }
+        // ...otherwise...
+        else
+        {
+            // ...each Individual is given new samples.
+            DisplacementBuffer[] displacements = generateDisplacements();
+            
+            for (int k = 0; k < individuals.length; k++)
+            {
+                individuals[k].setDisplacementSamples(displacements[k]);
+            }
+        }
+        
+        // The shapes of the Individuals changed, so all of them need to be
+        // re-baked
+        for (MergedMesh mergster : mergedMeshes)
+        {
+            mergster.bake();
+        }
+        
+        refreshImpostors();
+        
+        compactIndividuals();
+    }
+    
+    /**
+     * Renders the impostors again after the variants' meshes or material have
+     * changed
+     */
+    private void refreshImpostors()
+    {
+        impostorsOutdated = true;
+        
+        // As long as the Individuals are not still coming in...
+        if (!servicePrepared)
+        {
+            // ...the impostors being shown are replaced now.
+            applyImpostors();
+        }
+    }
+    
+    /**
+     * Fills the Group with the views that currently show this population. The
+     * views are gathered into the cells of a grid over the terrain, so that
+     * the cells out of the camera's view can be left out all at once.
+     */
+    private void refreshMeshes()
+    {
+        List<Group> cellster = new ArrayList<>();
+        
+        clearMeshes();
+        
+        // The views' sizes rely on whether they show impostors
+        applyImpostors();
+        
+        // If the Individuals are merged...
+        if (merged)
+        {
+            // ...each merged mesh already covers a part of the terrain, so it
+            // is a cell of its own.
+            for (MergedMesh mergster : mergedMeshes)
+            {
+                cellster.add(new Group(mergster.getMeshView()));
+            }
+        }
+        // ...otherwise...
+        else
+        {
+            // ...each Individual is put into the cell its location is in.
+            int cellRows = (terrainDepth + CELL_SIZE - 1) / CELL_SIZE;
+            int cellColumns = (terrainWidth + CELL_SIZE - 1) / CELL_SIZE;
+            
+            Group[] grid = new Group[cellColumns * cellRows];
+            
+            for (int k = 0; k < individuals.length; k++)
+            {
+                int cell = getColumn(locations[k]) / CELL_SIZE * cellRows
+                        + getRow(locations[k]) / CELL_SIZE;
+                
+                // If this is the first Individual in the cell...
+                if (grid[cell] == null)
+                {
+                    // ...the cell is created.
+                    grid[cell] = new Group();
+                    
+                    cellster.add(grid[cell]);
+                }
+                
+                grid[cell].getChildren().add(individuals[k].getMeshView());
+            }
+        }
+        
+        cells = cellster.toArray(new Group[cellster.size()]);
+        
+        cull();
     }
     
     /**
@@ -912,55 +1679,290 @@ public class Population
      * @param terrainPoints The array of point positions used in the creation of
      *                      the terrain
      */
-    private void reload(String actionDescription, float[] terrainPoints)
+    private void reload(String actionDescription, TerrainPoints terrainPoints)
     {
-        // As long as an Individual exists...
-        if (individuals.length > 0)
+        // As long as an Individual exists or is being created...
+        if (individuals.length > 0 || servicePrepared)
         {
             // ...load the Population.
             load(actionDescription, terrainPoints);
         }
     }
     
+    /**
+     * Picks a new random seed, so that the population is laid out and shaped
+     * differently the next time it is generated
+     */
+    public void reseed()
+    {
+        seed = new Random().nextLong();
+    }
+    
+    /**
+     * Changes the number of vertices in the Individuals' meshes, keeping their
+     * locations, sizes and shifts. New displacement samples are generated at
+     * the new size.
+     */
+    private void reshapeIndividuals()
+    {
+        // If the Individuals share meshes...
+        if (variants.length > 0)
+        {
+            // ...only those few meshes are rebuilt...
+            DisplacementGenerator generster = getDisplacementGenerator();
+            
+            for (int v = 0; v < variants.length; v++)
+            {
+                variants[v].reshape(vertexWidth, vertexHeight,
+                        generster.generate(getRandomStream(seed,
+                        VARIANT_STREAMS, v)));
+            }
+            
+            // ...and the Individuals take up the rebuilt meshes.
+            for (Individual individual : individuals)
+            {
+                individual.reshare();
+            }
+        }
+        // ...otherwise...
+        else
+        {
+            // ...each Individual's mesh is rebuilt with new samples.
+            DisplacementBuffer[] displacements = generateDisplacements();
+            
+            for (int k = 0; k < individuals.length; k++)
+            {
+                individuals[k].reshape(vertexWidth, vertexHeight,
+                        displacements[k]);
+            }
+        }
+        
+        // Each Individual takes a different number of vertices in the merged
+        // meshes now, so they need to be split up again
+        createMergedMeshes();
+        
+        refreshImpostors();
+        
+        compactIndividuals();
+    }
+    
     /**
      * Positions the Individuals based upon the terrain's vertex positions
      * provided
      * 
      * @param terrainPoints The point data used to create the terrain's MeshView
      */
-    public void reposition(float[] terrainPoints)
+    public void reposition(TerrainPoints terrainPoints)
+    {
+        // If the Individuals are still being created...
+        if (servicePrepared)
+        {
+            // ...they are re-positioned once they are finished.
+            pendingPoints = terrainPoints;
+        }
+        // ...otherwise...
+        else
+        {
+            pendingPoints = null;
+            
+            // ...reposition each Individual onto its vertex.
+            for (int k = 0; k < individuals.length; k++)
+            {
+                short column = getColumn(locations[k]);
+                short row = getRow(locations[k]);
+                
+                individuals[k].reposition(terrainPoints.getX(column, row),
+                        terrainPoints.getY(column, row),
+                        terrainPoints.getZ(column, row));
+            }
+            
+            updateMergedMeshes();
+        }
+    }
+    
+    /**
+     * Re-sizes the faces of the Individuals from the width and height maps,
+     * keeping everything else about them
+     */
+    private void resizeIndividuals()
+    {
+        // Moving the vertices of the Individuals' own meshes needs their
+        // samples
+        restoreSamples();
+        
+        // Each Individual is given the sizes sampled at its location
+        for (int k = 0; k < individuals.length; k++)
+        {
+            individuals[k].setFaceSize(faceWidths[locations[k]],
+                    faceHeights[locations[k]]);
+        }
+        
+        // Individuals with meshes of their own have had their vertices moved
+        // rather than their placements changed, so all of them are re-baked
+        for (MergedMesh mergster : mergedMeshes)
+        {
+            mergster.bake();
+        }
+        
+        compactIndividuals();
+    }
+    
+    /**
+     * Starts creating the Individuals again from the start, so that a change
+     * made while they were being created is included. None of the Individuals
+     * from before are kept, as they may be out of date too.
+     * 
+     * @param actionDescription A description of the change being made to the
+     *                          population
+     */
+    private void restartService(String actionDescription)
     {
-        // The length of the array that maps out the Individual's position is
-        // equal to the terrain's width
-        short terrainWidth = (short)locations.length;
+        TerrainPoints terrainPoints = servicePoints;
         
-        int index = 0;
+        // If the terrain changed shape while the Individuals were being
+        // created, they are created upon its new shape
+        if (pendingPoints != null)
+        {
+            terrainPoints = pendingPoints;
+        }
+        
+        // The variants are created from the population's current values too
+        createVariants();
         
-        // For each row of vertices on the terrain...
-        for (short i = 0; i < locations.length; i++)
+        createIndividuals(actionDescription, terrainPoints, new int[0],
+                new Individual[0]);
+    }
+    
+    /**
+     * Generates the displacement samples that the variants and Individuals
+     * released when they were compacted, and gives them back. As each is
+     * generated from the same random stream as before, they are the same
+     * samples that the meshes were built from. Nothing is done if the
+     * population is not compact.
+     */
+    private void restoreSamples()
+    {
+        // If the samples were released...
+        if (compact)
         {
-            // ...and for each column of vertices on the terrain...
-            for (short j = 0; j < locations[i].length; j++)
+            // ...and the Individuals share meshes...
+            if (variants.length > 0)
             {
-                // ...if an Individual is to be created there...
-                if (locations[i][j])
+                // ...only the variants need theirs back...
+                DisplacementGenerator generster = getDisplacementGenerator();
+                
+                for (int v = 0; v < variants.length; v++)
                 {
-                    // ...get the index of the coordinates for the vertex for
-                    // the current Individual.
-                    int xIndex = getBasePointIndex(i, j, terrainWidth);
-                    int yIndex = xIndex + 1;
-                    int zIndex = xIndex + 2;
-                    
-                    // Reposition it
-                    individuals[index].reposition(terrainPoints[xIndex],
-                            terrainPoints[yIndex], terrainPoints[zIndex]);
-                            
-                    index++;
+                    variants[v].restoreDisplacementSamples(generster.generate(
+                            getRandomStream(seed, VARIANT_STREAMS, v)));
+                }
+            }
+            // ...otherwise...
+            else
+            {
+                // ...each Individual is given its own back.
+                DisplacementBuffer[] displacements = generateDisplacements();
+                
+                for (int k = 0; k < individuals.length; k++)
+                {
+                    individuals[k].restoreDisplacementSamples(
+                            displacements[k]);
                 }
             }
         }
     }
     
+    /**
+     * Samples the face sizes from a width or height map for each of the
+     * terrain's vertices
+     * 
+     * @param mapster The width or height map
+     * 
+     * @return The face size at each location
+     */
+    private short[] sampleFaceSizes(TextureObject mapster)
+    {
+        int[] pixels = samplePixels(mapster);
+        
+        short[] sizes = new short[pixels.length];
+        
+        for (int i = 0; i < pixels.length; i++)
+        {
+            // The values returned from this function are too large for the
+            // width and height, so it is divided to a smaller value
+            sizes[i] = (short)(getColorValue(false, ' ', pixels[i])
+                    / SIZE_DIVIDER);
+        }
+        
+        return sizes;
+    }
+    
+    /**
+     * Reads the pixel of a map that falls on each of the terrain's vertices
+     * 
+     * @param mapster The map
+     * 
+     * @return The ARGB value of the pixel at each location
+     */
+    private int[] samplePixels(TextureObject mapster)
+    {
+        PixelReader readster = mapster.getImage().getPixelReader();
+        
+        int[] pixels = new int[terrainWidth * terrainDepth];
+        
+        // Get the spacing that should be between each UV point for the map
+        double horizontalSpacing = getUVSpacing(mapster.getWidth(),
+                terrainWidth);
+        double verticalSpacing = getUVSpacing(mapster.getHeight(),
+                terrainDepth);
+        
+        // When casting the pixel positions into an integer type, there's a
+        // possibility that they may be rounded up to match the size of the
+        // map, putting them out-of-bounds
+        int lastX = (int)mapster.getWidth() - 1;
+        int lastY = (int)mapster.getHeight() - 1;
+        
+        // For each column of vertices...
+        for (int i = 0; i < terrainWidth; i++)
+        {
+            int pixelX = Math.min((int)(horizontalSpacing * i), lastX);
+            
+            // ...and for each vertex in the column...
+            for (int j = 0; j < terrainDepth; j++)
+            {
+                // ...read the pixel for the location.
+                pixels[i * terrainDepth + j] = readster.getArgb(pixelX,
+                        Math.min((int)(verticalSpacing * j), lastY));
+            }
+        }
+        
+        return pixels;
+    }
+    
+    /**
+     * Samples the shift amounts from the shift map for each of the terrain's
+     * vertices
+     */
+    private void sampleShifts()
+    {
+        int[] pixels = samplePixels(shift);
+        
+        byte[] xster = new byte[pixels.length];
+        byte[] yster = new byte[pixels.length];
+        byte[] zster = new byte[pixels.length];
+        
+        for (int i = 0; i < pixels.length; i++)
+        {
+            xster[i] = getColorValue(true, 'r', pixels[i]);
+            yster[i] = getColorValue(true, 'g', pixels[i]);
+            zster[i] = getColorValue(true, 'b', pixels[i]);
+        }
+        
+        xShifts = xster;
+        yShifts = yster;
+        zShifts = zster;
+    }
+    
     /**
      * Sets the bump map
      * 
@@ -974,6 +1976,52 @@ public class Population
         {
             individual.setBump(bump.getImage());
         }
+        
+        mergedTexture.setBumpMap(bump.getImage());
+    }
+    
+    /**
+     * Lets the population know where the camera is viewing it from, so that,
+     * in impostor mode, the Individuals that appear small enough are swapped
+     * for their impostors
+     * 
+     * @param eyster The camera's eye in the population's coordinates
+     * @param focalster The camera's distance (in pixels) from the screen
+     */
+    public void setCamera(Point3D eyster, double focalster)
+    {
+        eye = eyster;
+        focalLength = focalster;
+        
+        // As long as the Individuals are not still coming in...
+        if (!servicePrepared)
+        {
+            // ...choose which ones are shown by impostors.
+            applyImpostors();
+        }
+    }
+    
+    /**
+     * Sets whether the Individuals release the point data and displacement
+     * samples that they can rebuild once their meshes are built. The meshes
+     * hold the same points, and the samples are generated again from the
+     * population's seed whenever a change needs them, so large populations
+     * take up far less memory at the cost of making those changes slower.
+     * 
+     * @param enabled Whether or not the population should be compact
+     */
+    public void setCompact(boolean enabled)
+    {
+        // If the Individuals are no longer to be compact...
+        if (!enabled)
+        {
+            // ...they are given their samples back first.
+            restoreSamples();
+        }
+        
+        compact = enabled;
+        
+        compactIndividuals();
     }
     
     /**
@@ -989,57 +2037,178 @@ public class Population
         {
             individual.setDiffuse(diffuse.getImage());
         }
+        
+        mergedTexture.setDiffuseMap(diffuse.getImage());
+        
+        // The impostors show the old diffuse map
+        refreshImpostors();
     }
     
     /**
-     * Sets the displacement strength
+     * Sets the displacement strength. The existing Individuals are kept along
+     * with their generated displacement samples; only how far their vertices
+     * are displaced changes.
      * 
      * @param strength The displacement strength
-     * @param terrainPoints The point positions used in the creation of the
-     *                      terrain's MeshView
      */
-    public void setDisplacementStrength(int strength, float[] terrainPoints)
+    public void setDisplacementStrength(int strength)
     {
-        String actionDescription = "Setting Population Displacement";
-        
         displacementStrength = strength;
         
-        reload(actionDescription, terrainPoints);
+        // If the Individuals are still being created...
+        if (servicePrepared)
+        {
+            // ...start creating them again with the new strength. The
+            // Individuals from before are thrown away, so there is nothing to
+            // displace.
+            restartService("Changing Population Displacement Strength");
+        }
+        // ...otherwise...
+        else
+        {
+            // ...the vertices are displaced again from the samples.
+            restoreSamples();
+            
+            for (Individual individual : individuals)
+            {
+                individual.setDisplacementStrength(strength);
+            }
+            
+            // The shapes of the Individuals changed, so all of them need to
+            // be re-baked, whether or not they moved
+            for (MergedMesh mergster : mergedMeshes)
+            {
+                mergster.bake();
+            }
+            
+            refreshImpostors();
+            
+            compactIndividuals();
+        }
     }
     
     /**
-     * Sets the first displacement map to be used in the displacement range
+     * Sets the first displacement map to be used in the displacement range.
+     * The existing Individuals are kept; only their displacement is generated
+     * again.
      * 
      * @param terrainPoints The point positions used in the creation of the
      *                      terrain's MeshView
      * @param dister A displacement map
      */
-    public void setFirstDisplacement(float[] terrainPoints,
+    public void setFirstDisplacement(TerrainPoints terrainPoints,
             TextureObject dister)
     {
-        String actionDescription = "Setting Population Displacement";
-        
         displacementRange[0] = dister;
         
-        reload(actionDescription, terrainPoints);
+        // If the Individuals are still being created...
+        if (servicePrepared)
+        {
+            // ...start creating them again with the new range.
+            restartService("Setting Population Displacement");
+        }
+        // ...otherwise...
+        else
+        {
+            // ...only their displacement relies on the range.
+            redisplaceIndividuals();
+        }
+    }
+    
+    /**
+     * Sets the space the camera can see. The cells of Individuals that are out
+     * of it are taken out of the preview, and those that came into it are put
+     * back in.
+     * 
+     * @param frustster The camera's view frustum
+     */
+    public void setFrustum(ViewFrustum frustster)
+    {
+        frustum = frustster;
+        
+        // As long as the Individuals are not still coming in...
+        if (!servicePrepared)
+        {
+            // ...show only the cells in view.
+            cull();
+        }
     }
     
     /**
      * Sets the map used to determine the height of the Individuals in this
-     * population
+     * population. The existing Individuals are kept and only re-sized.
      * 
      * @param terrainPoints The point positions used in the creation of the
      *                      terrain's MeshView
      * @param heightster A map used to determine the height of the Individuals
      *                   in this population
      */
-    public void setHeight(float[] terrainPoints, TextureObject heightster)
+    public void setHeight(TerrainPoints terrainPoints, TextureObject heightster)
     {
-        String actionDescription = "Setting Population Height";
-        
         height = heightster;
         
-        reload(actionDescription, terrainPoints);
+        faceHeights = sampleFaceSizes(height);
+        
+        // If the Individuals are still being created...
+        if (servicePrepared)
+        {
+            // ...start creating them again with the new map.
+            restartService("Setting Population Height");
+        }
+        // ...otherwise...
+        else
+        {
+            // ...only their sizes rely on the map.
+            resizeIndividuals();
+        }
+    }
+    
+    /**
+     * Sets whether the Individuals far from the camera are shown by flat
+     * impostors of the variants' meshes. Only Individuals that share a
+     * variant's mesh and are not merged can be shown by an impostor.
+     * 
+     * @param enabled Whether or not impostor mode should be used
+     */
+    public void setImpostorMode(boolean enabled)
+    {
+        impostorMode = enabled;
+        
+        if (!servicePrepared)
+        {
+            applyImpostors();
+        }
+    }
+    
+    /**
+     * Sets the size that an Individual must appear smaller than to be shown
+     * by an impostor
+     * 
+     * @param sizster The size (in pixels on the screen)
+     */
+    public void setImpostorSize(short sizster)
+    {
+        impostorSize = sizster;
+        
+        if (!servicePrepared)
+        {
+            applyImpostors();
+        }
+    }
+    
+    /**
+     * Sets whether the Individuals are shown merged into a few large meshes or
+     * each by their own view. Merged Individuals put far fewer nodes into the
+     * scene, but every change to where they are placed has to be re-baked
+     * into the meshes.
+     * 
+     * @param mergster Whether or not the Individuals are to be merged
+     */
+    public void setMerged(boolean mergster)
+    {
+        merged = mergster;
+        
+        createMergedMeshes();
     }
     
     /**
@@ -1049,19 +2218,60 @@ public class Population
      *                      in the terrain's MeshView
      * @param placster The placement map
      */
-    public void setPlacement(float terrainPoints[], TextureObject placster)
+    public void setPlacement(TerrainPoints terrainPoints, TextureObject placster)
     {
         String actionDescription = "Positioning Population";
         
+        // The Individuals that may be kept where the new map still places one
+        int[] oldLocations = locations;
+        Individual[] oldIndividuals = individuals;
+        
         placement = placster;
         
-        load(actionDescription, terrainPoints);
+        individuals = new Individual[0];
+        mergedMeshes = new MergedMesh[0];
+        
+        calculateLocations();
+        
+        // If the population's size changed enough to need a different number
+        // of variants...
+        if (variants.length != Math.min(variantCount, size))
+        {
+            // ...the variants are created again. The old Individuals show the
+            // old variants, so none of them can be kept.
+            createVariants();
+            
+            oldLocations = new int[0];
+            oldIndividuals = new Individual[0];
+        }
+        
+        // Only the Individuals at locations that were not used before are
+        // created
+        createIndividuals(actionDescription, terrainPoints, oldLocations,
+                oldIndividuals);
         
         setBump(bump);
         setDiffuse(diffuse);
         setSpecular(specular);
     }
     
+    /**
+     * Sets the seed that every random choice in generating this population is
+     * derived from, and re-generates the population from it
+     * 
+     * @param seedster The seed
+     * @param terrainPoints The point positions used in the creation of the
+     *                      terrain's MeshView
+     */
+    public void setSeed(long seedster, TerrainPoints terrainPoints)
+    {
+        String actionDescription = "Setting Population Seed";
+        
+        seed = seedster;
+        
+        load(actionDescription, terrainPoints);
+    }
+    
     /**
      * Sets the shift map
      * 
@@ -1071,88 +2281,85 @@ public class Population
     {
         shift = shiftster;
         
-        // Get the spacing that should be between each UV point for the shift
-        // map
-        double horizontalUVSpacing = getUVSpacing(shift.getWidth(),
-                locations.length);
-        double verticalUVSpacing = getUVSpacing(shift.getHeight(),
-                locations[0].length);
-        
-        int count = 0;
+        sampleShifts();
         
-        // For each row of vertices on the terrain...
-        for (short i = 0; i < locations.length; i++)
+        // If the Individuals are still being created...
+        if (servicePrepared)
+        {
+            // ...start creating them again with the new map. The Individuals
+            // from before are thrown away, so there is nothing to shift.
+            restartService("Setting Population Shift");
+        }
+        // ...otherwise...
+        else
         {
-            // ...and for each column of vertices on the terrain...
-            for (short j = 0; j < locations[i].length; j++)
+            // ...each Individual is given the shifts sampled at its location.
+            for (int k = 0; k < individuals.length; k++)
             {
-                // ...if an Individual is to be created there...
-                if (locations[i][j])
-                {
-                    // ...get the correct pixel color for this Individual
-                    Color shiftColor = getPixelColor(i, j, horizontalUVSpacing,
-                            verticalUVSpacing, shift);
-                    
-                    // Get the correct shift amounts for this color
-                    byte shiftX = getColorValue(true, 'r', shiftColor);
-                    byte shiftY = getColorValue(true, 'g', shiftColor);
-                    byte shiftZ = getColorValue(true, 'b', shiftColor);
-                    
-                    individuals[count].setShift(shiftX, shiftY, shiftZ);
-                    
-                    count++;
-                }
+                individuals[k].setShift(xShifts[locations[k]],
+                        yShifts[locations[k]], zShifts[locations[k]]);
             }
+            
+            updateMergedMeshes();
         }
     }
     
     /**
      * Rotates the Individuals in correspondence with the camera's vertical
-     * rotation value
+     * rotation value. The rotation is shared by all of them, so only it needs
+     * to be changed.
      * 
      * @param angle The camera's vertical rotation value
      */
     public void setRotationX(short angle)
     {
-        baseRotateX = angle;
+        // Every Individual shares the rotation
+        facingX.setAngle(BASE_X_ROTATION - angle);
         
-        for (Individual individual : individuals)
-        {
-            individual.setRotationX(angle);
-        }
+        updateMergedMeshes();
     }
     
     /**
      * Rotates the Individuals in correspondence with the camera's horizontal
-     * rotation value
+     * rotation value. The rotation is shared by all of them, so only it needs
+     * to be changed.
      * 
      * @param angle The camera's horizontal rotation value
      */
     public void setRotationY(short angle)
     {
-        baseRotateY = angle;
+        // Every Individual shares the rotation
+        facingY.setAngle(-angle);
         
-        for (Individual individual : individuals)
-        {
-            individual.setRotationY(angle);
-        }
+        updateMergedMeshes();
     }
     
     /**
-     * Sets the second displacement map to be used in the displacement range
+     * Sets the second displacement map to be used in the displacement range.
+     * The existing Individuals are kept; only their displacement is generated
+     * again.
      * 
      * @param terrainPoints The point positions used in the creation of the
      *                      terrain's MeshView
      * @param dister A displacement map
      */
-    public void setSecondDisplacement(float[] terrainPoints,
+    public void setSecondDisplacement(TerrainPoints terrainPoints,
             TextureObject dister)
     {
-        String actionDescription = "Setting Population Displacement";
-        
         displacementRange[1] = dister;
         
-        reload(actionDescription, terrainPoints);
+        // If the Individuals are still being created...
+        if (servicePrepared)
+        {
+            // ...start creating them again with the new range.
+            restartService("Setting Population Displacement");
+        }
+        // ...otherwise...
+        else
+        {
+            // ...only their displacement relies on the range.
+            redisplaceIndividuals();
+        }
     }
     
     /**
@@ -1168,114 +2375,200 @@ public class Population
         {
             individual.setSpecular(specular.getImage());
         }
+        
+        mergedTexture.setSpecularMap(specular.getImage());
     }
     
     /**
-     * Sets the height of the Individuals
+     * Sets the number of meshes with different displacements that the
+     * Individuals share. With fewer meshes than Individuals, far less needs to
+     * be generated and kept in memory; each Individual only has a view of its
+     * own showing one of the meshes with its own position and size.
      * 
-     * @param heightster the height of the Individuals (Measured in vertices)
+     * @param count The number of shared meshes. If it is 0, every Individual
+     *              is given a mesh of its own.
      * @param terrainPoints The point positions used in the creation of the
      *                      terrain's MeshView
      */
-    public void setVertexHeight(short heightster, float[] terrainPoints)
+    public void setVariantCount(short count, TerrainPoints terrainPoints)
     {
-        String actionDescription = "Changing Population Vertex Height";
+        String actionDescription = "Changing Population Variants";
         
-        vertexHeight = heightster;
+        variantCount = count;
         
         reload(actionDescription, terrainPoints);
     }
     
     /**
-     * Sets the width of the Individuals
+     * Sets the height of the Individuals. The existing Individuals keep their
+     * locations and sizes; their meshes are rebuilt with the new number of
+     * vertices.
      * 
-     * @param widthster The width of the Individuals (Measured in vertices)
+     * @param heightster the height of the Individuals (Measured in vertices)
      * @param terrainPoints The point positions used in the creation of the
      *                      terrain's MeshView
      */
-    public void setVertexWidth(short widthster, float[] terrainPoints)
+    public void setVertexHeight(short heightster, TerrainPoints terrainPoints)
     {
-        String actionDescription = "Changing Population Vertex Width";
+        vertexHeight = heightster;
         
+        // If the Individuals are still being created...
+        if (servicePrepared)
+        {
+            // ...start creating them again at the new size.
+            restartService("Changing Population Vertex Height");
+        }
+        // ...otherwise...
+        else
+        {
+            // ...only their meshes need to be rebuilt.
+            reshapeIndividuals();
+        }
+    }
+    
+    /**
+     * Sets the width of the Individuals. The existing Individuals keep their
+     * locations and sizes; their meshes are rebuilt with the new number of
+     * vertices.
+     * 
+     * @param widthster The width of the Individuals (Measured in vertices)
+     * @param terrainPoints The point positions used in the creation of the
+     *                      terrain's MeshView
+     */
+    public void setVertexWidth(short widthster, TerrainPoints terrainPoints)
+    {
         vertexWidth = widthster;
         
-        reload(actionDescription, terrainPoints);
+        // If the Individuals are still being created...
+        if (servicePrepared)
+        {
+            // ...start creating them again at the new size.
+            restartService("Changing Population Vertex Width");
+        }
+        // ...otherwise...
+        else
+        {
+            // ...only their meshes need to be rebuilt.
+            reshapeIndividuals();
+        }
     }
     
     /**
      * Sets the map used to determine the width of the Individuals in this
-     * population
+     * population. The existing Individuals are kept and only re-sized.
      * 
      * @param widthster A map used to determine the width of the Individuals in
      *                  this population
      * @param terrainPoints The point positions used in the creation of the
      *                      terrain's MeshView
      */
-    public void setWidth(float[] terrainPoints, TextureObject widthster)
+    public void setWidth(TerrainPoints terrainPoints, TextureObject widthster)
     {
-        String actionDescription = "Setting Population Width";
-        
         width = widthster;
         
-        reload(actionDescription, terrainPoints);
+        faceWidths = sampleFaceSizes(width);
+        
+        // If the Individuals are still being created...
+        if (servicePrepared)
+        {
+            // ...start creating them again with the new map.
+            restartService("Setting Population Width");
+        }
+        // ...otherwise...
+        else
+        {
+            // ...only their sizes rely on the map.
+            resizeIndividuals();
+        }
     }
     
     /**
-     * Runs this population's service (if not already running)
-     * 
-     * @param action A short description of the work that the service is
-     *               currently doing. It is used as the progress dialog's
-     *               title.
+     * Shows the Individuals from every batch the service has finished since
+     * this was last called. They are all added to the Group at once.
      */
-    private void startService(String action)
+    private void showFinishedBatches()
     {
-        // The service is now ready for use
-        servicePrepared = true;
+        List<Node> views = new ArrayList<>();
+        
+        Individual[] batster = finishedBatches.poll();
         
-        // Create a progress dialog and show it
-        individualProgress = new ProgressBarDialog(action, individualService);
-        individualProgress.show();
+        while (batster != null)
+        {
+            for (Individual individual : batster)
+            {
+                individual.attachShared();
+                individual.setFacing(facingX, facingY);
+                
+                views.add(individual.getMeshView());
+            }
+            
+            batster = finishedBatches.poll();
+        }
         
-        // As long as the service is not already running...
-        if (!individualService.isRunning())
+        // As long as a batch was finished...
+        if (!views.isEmpty())
         {
-            // ...start it.
-            individualService.start();
+            // ...show it.
+            meshes.getChildren().addAll(views);
         }
     }
     
     /**
-     * Re-adjusts the population for when the terrain's depth is changed
+     * Runs this population's service. Any service that was already running has
+     * been cancelled by this point, as each service is only used once.
      * 
-     * @param terrainDepth The new depth of the terrain (measured in vertices)
-     * @param terrainPoints The point data used to create the terrain's MeshView
+     * @param action A short description of the work that the service is
+     *               currently doing
      */
-    public void updateForTerrainDepthChange(short terrainDepth,
-            float[] terrainPoints)
+    private void startService(String action)
     {
-        String actionDescription = "Changing Terrain Depth";
+        // The service is now ready for use
+        servicePrepared = true;
         
-        locations = new boolean[locations.length][terrainDepth];
+        individualService.start();
         
-        reload(actionDescription, terrainPoints);
+        // Finished Individuals are shown while the rest are being created
+        streamer.start();
     }
     
     /**
-     * Re-adjusts the population for when the terrain's width is changed
+     * Re-adjusts the population for when the terrain's size is changed
      * 
-     * @param terrainWidth The new width of the terrain (measured in vertices)
+     * @param widthster The new width of the terrain (measured in vertices)
+     * @param depthster The new depth of the terrain (measured in vertices)
      * @param terrainPoints The point data used to create the terrain's MeshView
      */
-    public void updateForTerrainWidthChange(short terrainWidth,
-            float[] terrainPoints)
+    public void updateForTerrainSizeChange(short widthster, short depthster,
+            TerrainPoints terrainPoints)
     {
-        String actionDescription = "Changing Terrain Width";
+        String actionDescription = "Changing Terrain Size";
         
-        locations = new boolean[terrainWidth][locations[0].length];
+        terrainWidth = widthster;
+        terrainDepth = depthster;
+        
+        // The old vertices are no longer where they were on the terrain
+        locations = new int[0];
+        
+        // The maps are spread over a different number of vertices
+        sampleShifts();
+        faceWidths = sampleFaceSizes(width);
+        faceHeights = sampleFaceSizes(height);
         
         reload(actionDescription, terrainPoints);
     }
     
+    /**
+     * Re-bakes the Individuals that have moved into the meshes they are merged
+     * into
+     */
+    private void updateMergedMeshes()
+    {
+        for (MergedMesh mergster : mergedMeshes)
+        {
+            mergster.update();
+        }
+    }
+    
     /**
      * Gets a string representation of all of the variables in this MeshObject
      * 
@@ -1289,6 +2582,7 @@ public class Population
         stringster = stringster + "-----------------------------------------\n";
         
         stringster = stringster + "Population size: " + size + "\n";
+        stringster = stringster + "Seed: " + seed + "\n";
         
         stringster = stringster + "Displacement Strength: "
                 + displacementStrength + "\n\n";
@@ -1296,31 +2590,24 @@ public class Population
         stringster = stringster + "Width of each Individual (vertices): "
                 + vertexWidth + "\n";
         stringster = stringster + "Height of each Individual (vertices): "
-                + vertexHeight + "\n\n";
+                + vertexHeight + "\n";
+        stringster = stringster + "Shared variants: " + variantCount + "\n";
+        stringster = stringster + "Merged meshes: " + mergedMeshes.length
+                + "\n";
+        stringster = stringster + "Impostor mode: " + impostorMode
+                + " (below " + impostorSize + " pixels)\n";
+        stringster = stringster + "Compact: " + compact + " ("
+                + getReclaimedBytes() + " bytes reclaimed)\n\n";
         
         stringster = stringster + "Locations image: " + placement.getName()
                 + "\n";
-        stringster = stringster + "Population locations:\n";
-        for (int i = 0; i < locations.length; i++)
+        stringster = stringster + "Population locations (column,row):\n";
+        for (int location : locations)
         {
-            for (int j = 0; j < locations[i].length; j++)
-            {
-                char isItHere;
-                
-                if (locations[i][j])
-                {
-                    isItHere = 'O';
-                }
-                else
-                {
-                    isItHere = 'X';
-                }
-                
-                stringster = stringster + "[" + isItHere + "]";
-            }
-            stringster = stringster + "\n";
+            stringster = stringster + "[" + getColumn(location) + ","
+                    + getRow(location) + "]";
         }
-        stringster = stringster + "\n";
+        stringster = stringster + "\n\n";
         
         stringster = stringster + "Bump map: " + bump.getName() + "\n";
         stringster = stringster + "Specular map: " + specular.getName() + "\n";
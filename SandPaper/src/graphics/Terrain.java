@@ -1,18 +1,101 @@
 package graphics;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import javafx.application.Platform;
+import javafx.geometry.Point3D;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.image.Image;
+import javafx.scene.paint.PhongMaterial;
 
 /**
  * The 3D object designed from the materials imported from the user
  * 
+ * The terrain is made up of a grid of TerrainChunks, each with its own mesh,
+ * so that a large terrain never needs a single array or mesh large enough to
+ * hold all of it. The chunks are calculated in parallel and shown together in
+ * one group.
+ * 
+ * Changes to the terrain's size, displacement map or displacement strength are
+ * built on a background thread into a second set of chunks while the first set
+ * stays on screen. Once finished, the 2 sets are swapped on the JavaFX thread.
+ * A build that is overtaken by a newer change is thrown away.
+ * 
  * @author George Tiersma
  */
-public class Terrain extends MeshObject
+public class Terrain
 {
+    // The thread shared by every terrain for building chunks. There is only 1
+    // so that the builds for a terrain are done in the order given.
+    private static final ExecutorService BUILDER
+            = Executors.newSingleThreadExecutor((runster) ->
+            {
+                Thread threadster = new Thread(runster);
+                
+                // The thread should not keep the program open once it closes
+                threadster.setDaemon(true);
+                
+                return threadster;
+            });
+    
+    // The length of each side of each face on the mesh when the mesh is not
+    // displaced
+    private short faceSize;
+    
+    // The width of the terrain in vertices
+    private short width;
+    // The depth of the terrain in vertices
+    private short depth;
+    
+    // The multiplier for the displacement map strength that is set by the user
+    private int displacementStrength;
+    
+    // The number of edits begun on the terrain that are yet to be committed
+    private int openEdits;
+    
+    // Whether or not the terrain's size, displacement map or displacement
+    // strength has changed since the last build was started
+    private boolean changed;
+    
     private TextureObject displacementTexture;
     private TextureObject diffuseTexture;
     private TextureObject bumpTexture;
     private TextureObject specularTexture;
     
+    // Contains the diffuse, bump and specular map. It is shared by every
+    // chunk.
+    private PhongMaterial texture;
+    
+    // The chunks on screen, numbered left to right, top to bottom
+    private TerrainChunk[] chunks;
+    
+    // Gives access to the positions of the vertices in the chunks on screen
+    private TerrainPoints pointster;
+    
+    // The set of chunks not on screen, ready to be built into. Null while it
+    // is being built into.
+    private final AtomicReference<TerrainPoints> spare;
+    
+    // Counts how many builds have been started. A build for an older count is
+    // thrown away.
+    private final AtomicInteger version;
+    
+    // Run on the JavaFX thread each time a finished build is put on screen
+    private Runnable onBuilt;
+    
+    // The group holding the view of every chunk
+    private Group groupster;
+    
+    // The patches that the terrain is shown as while in level-of-detail mode.
+    // Null while the terrain is shown as its chunks.
+    private PatchTree patches;
+    
     /**
      * CONSTRUCTOR
      * 
@@ -27,13 +110,167 @@ public class Terrain extends MeshObject
     public Terrain(short fSize, short widthster, short depthster,
             int strengthster, TextureObject dister)
     {
-        super(fSize, fSize, widthster, depthster, strengthster,
-                dister.getImage());
+        faceSize = fSize;
+        
+        width = widthster;
+        depth = depthster;
+        
+        displacementStrength = strengthster;
         
         displacementTexture = dister;
         diffuseTexture = new TextureObject(1);
         bumpTexture = new TextureObject(1);
         specularTexture = new TextureObject(1);
+        
+        texture = new PhongMaterial();
+        
+        groupster = new Group();
+        
+        patches = null;
+        
+        spare = new AtomicReference<>(null);
+        version = new AtomicInteger(0);
+        
+        onBuilt = null;
+        
+        changed = false;
+        
+        pointster = createChunks(width, depth, displacementTexture.getImage());
+        chunks = pointster.getChunks();
+        
+        for (TerrainChunk chunster : chunks)
+        {
+            groupster.getChildren().add(chunster.getMeshView());
+        }
+    }
+    
+    /**
+     * Begins an edit of the terrain. Any changes made to the terrain's size,
+     * displacement map or displacement strength are held back until the edit
+     * is committed, so the chunks are only rebuilt once. Edits may be nested;
+     * only committing the outermost one rebuilds the chunks.
+     */
+    public void beginEdit()
+    {
+        openEdits++;
+    }
+    
+    /**
+     * Builds a set of chunks for the given settings. Must be called on the
+     * background thread.
+     * 
+     * @param versionster The version that the build was started for
+     * @param widthster The width of the terrain in vertices
+     * @param depthster The depth of the terrain in vertices
+     * @param strengthster The multiplier for the displacement map
+     * @param dister The displacement map
+     * @param shown Whether or not the chunks' meshes should show the terrain
+     */
+    private void build(int versionster, short widthster, short depthster,
+            int strengthster, Image dister, boolean shown)
+    {
+        // As long as no newer change has been made...
+        if (versionster == version.get())
+        {
+            // ...take the set of chunks that is not on screen.
+            TerrainPoints built = spare.getAndSet(null);
+            
+            // Whether or not the UVs and faces need to be loaded as well
+            boolean everything = false;
+            
+            // If there is no spare set of the right size, a new set is created
+            if (built == null || built.getWidth() != widthster
+                    || built.getDepth() != depthster)
+            {
+                built = createChunks(widthster, depthster, dister);
+                
+                everything = true;
+            }
+            
+            prepare(built.getChunks(), dister, strengthster);
+            
+            // If a newer change was made during the calculations...
+            if (versionster != version.get())
+            {
+                // ...the set is left for the next build.
+                spare.set(built);
+            }
+            // ...otherwise...
+            else
+            {
+                // ...load it into the meshes, which is safe to do here as
+                // they are not on screen.
+                loadChunks(built.getChunks(), everything, shown);
+                
+                final TerrainPoints BUILT = built;
+                
+                Platform.runLater(() -> swap(versionster, BUILT));
+            }
+        }
+    }
+    
+    /**
+     * Commits an edit of the terrain. Once the outermost edit is committed, a
+     * build for the changes made during the edit is started in the background.
+     * The chunks on screen are left as they are until it finishes.
+     */
+    public void commitEdit()
+    {
+        if (openEdits > 0)
+        {
+            openEdits--;
+        }
+        
+        if (openEdits == 0 && changed)
+        {
+            changed = false;
+            
+            startBuild();
+        }
+    }
+    
+    /**
+     * Creates a grid of chunks for a terrain of the given size. The chunks'
+     * data is not calculated.
+     * 
+     * @param widthster The width of the terrain in vertices
+     * @param depthster The depth of the terrain in vertices
+     * @param dister The displacement map
+     * 
+     * @return Access to the chunks' points
+     */
+    private TerrainPoints createChunks(short widthster, short depthster,
+            Image dister)
+    {
+        final short FACES = TerrainChunk.CHUNK_FACES;
+        
+        int chunkColumns = getChunksAmount(widthster);
+        int chunkRows = getChunksAmount(depthster);
+        
+        TerrainChunk[] chunkster = new TerrainChunk[chunkColumns * chunkRows];
+        
+        for (int z = 0; z < chunkRows; z++)
+        {
+            for (int x = 0; x < chunkColumns; x++)
+            {
+                int firstX = x * FACES;
+                int firstZ = z * FACES;
+                
+                // Each chunk shares its last column and row of vertices with
+                // the next chunk
+                short chunkWidth = (short)(Math.min(firstX + FACES,
+                        widthster - 1) - firstX + 1);
+                short chunkDepth = (short)(Math.min(firstZ + FACES,
+                        depthster - 1) - firstZ + 1);
+                
+                chunkster[z * chunkColumns + x] = new TerrainChunk(faceSize,
+                        chunkWidth, chunkDepth, firstX, firstZ, widthster,
+                        depthster, displacementStrength, dister, texture);
+            }
+        }
+        
+        return new TerrainPoints(chunkster, chunkColumns, widthster,
+                depthster);
     }
     
     /**
@@ -68,33 +305,42 @@ public class Terrain extends MeshObject
         
         byte dimensionValue = getDimensionValue(dimension);
         
+        // The size of the terrain on screen, which may be behind the size
+        // set while a build is running
+        int width = pointster.getWidth();
+        int depth = pointster.getDepth();
+        
         // The average of the positions of the points
         float average;
         // The sum of all of the positions of the points
         float total = 0;
         
-        // The indexes of the points
-        int[] indexes = new int[CENTER_POINTS_AMOUNT];
+        // The columns and rows of the points
+        int[] columns = new int[CENTER_POINTS_AMOUNT];
+        int[] rows = new int[CENTER_POINTS_AMOUNT];
         
-        // An estimation of the center-most point's index
-        indexes[0] = width * (depth / 2) + (width / 2);
+        // An estimation of the center-most point
+        columns[0] = width / 2;
+        rows[0] = depth / 2;
         // The point between the center and the back edge of the terrain
-        indexes[1] = indexes[0] - width * (depth / CORNERS_AMOUNT);
+        columns[1] = columns[0];
+        rows[1] = rows[0] - depth / CORNERS_AMOUNT;
         // The point between the center and the left edge of the terrain
-        indexes[2] = indexes[0] - width / CORNERS_AMOUNT;
+        columns[2] = columns[0] - width / CORNERS_AMOUNT;
+        rows[2] = rows[0];
         // The point between the center and the right edge of the terrain
-        indexes[3] = indexes[0] + width / CORNERS_AMOUNT;
+        columns[3] = columns[0] + width / CORNERS_AMOUNT;
+        rows[3] = rows[0];
         // The point between the center and the front edge of the terrain
-        indexes[4] = indexes[0] + width * (depth / CORNERS_AMOUNT);
+        columns[4] = columns[0];
+        rows[4] = rows[0] + depth / CORNERS_AMOUNT;
         
         // For each point...
         for (byte i = 0; i < CENTER_POINTS_AMOUNT; i++)
         {
-            // ...calculate the index for the correct dimension.
-            indexes[i] = indexes[i] * DIMENSIONS + dimensionValue;
-            
-            // Add that point's position to the total
-            total = total + points[indexes[i]];
+            // ...add that point's position to the total.
+            total = total + pointster.getPosition(columns[i], rows[i],
+                    dimensionValue);
         }
         
         // Get the average position of the points
@@ -103,6 +349,18 @@ public class Terrain extends MeshObject
         return average;
     }
     
+    /**
+     * Gets the number of chunks needed to cover a number of vertices
+     * 
+     * @param vertices The number of vertices across the terrain
+     * 
+     * @return The number of chunks across the terrain
+     */
+    private static int getChunksAmount(int vertices)
+    {
+        return (vertices - 2) / TerrainChunk.CHUNK_FACES + 1;
+    }
+    
     /**
      * Gets the depth of the terrain (Measured in vertices)
      * 
@@ -216,23 +474,19 @@ public class Terrain extends MeshObject
         // The furthest point
         float far = 0;
         
-        // The 4 corner points of the terrain
-        int[] cornerPoints = {
-                0,
-                (width - 1),
-                (width * (depth - 1)),
-                ((width * depth) - 1)
-                };
+        int width = pointster.getWidth();
+        int depth = pointster.getDepth();
+        
+        // The columns and rows of the 4 corner points of the terrain
+        int[] cornerColumns = {0, width - 1, 0, width - 1};
+        int[] cornerRows = {0, 0, depth - 1, depth - 1};
         
         // For each point in a corner...
-        for (byte i = 0; i < cornerPoints.length; i++)
+        for (byte i = 0; i < cornerColumns.length; i++)
         {
-            // The index of the position of this corner point of the given
-            // dimension
-            int farIndex = cornerPoints[i] * DIMENSIONS + dimensionValue;
-            
             // The distance this point is from the center
-            float possibleFar = Math.abs(points[farIndex] - center);
+            float possibleFar = Math.abs(pointster.getPosition(
+                    cornerColumns[i], cornerRows[i], dimensionValue) - center);
             
             // If it is the furthest from the terrain center so far...
             if (far < possibleFar)
@@ -246,14 +500,33 @@ public class Terrain extends MeshObject
     }
     
     /**
-     * Gets the array of point coordinates used in the creation of the terrain
-     * mesh
+     * Gets access to the point coordinates used in the creation of the
+     * terrain's chunks
+     * 
+     * @return The terrain's point coordinates
+     */
+    public TerrainPoints getPoints()
+    {
+        return pointster;
+    }
+    
+    /**
+     * Gets the node that shows the terrain in the preview. This is either the
+     * group of the terrain's chunks or, in level-of-detail mode, the group of
+     * its patches.
      * 
-     * @return The array of point coordinates
+     * @return The node showing the terrain
      */
-    public float[] getPoints()
+    public Node getPreviewNode()
     {
-        return points;
+        Node nodester = groupster;
+        
+        if (patches != null)
+        {
+            nodester = patches.getGroup();
+        }
+        
+        return nodester;
     }
     
     /**
@@ -276,6 +549,67 @@ public class Terrain extends MeshObject
         return width;
     }
     
+    /**
+     * Loads the data needed to construct every chunk. Unlike other changes,
+     * this is done on the calling thread, and any build still running is
+     * thrown away.
+     */
+    public void load()
+    {
+        version.incrementAndGet();
+        
+        prepare(chunks, displacementTexture.getImage(), displacementStrength);
+        loadChunks(chunks, true, patches == null);
+        
+        // The patches need to be rebuilt from the new positions
+        if (patches != null)
+        {
+            patches.setPoints(pointster);
+        }
+    }
+    
+    /**
+     * Loads the data last prepared for the given chunks into their meshes,
+     * one chunk at a time
+     * 
+     * @param chunkster The chunks to be loaded
+     * @param everything Whether or not the UVs and faces need to be loaded as
+     *                   well as the points
+     * @param shown Whether or not the chunks' meshes should show the terrain
+     */
+    private void loadChunks(TerrainChunk[] chunkster, boolean everything,
+            boolean shown)
+    {
+        for (TerrainChunk chunk : chunkster)
+        {
+            // If whether the mesh is shown needs to change, changing it loads
+            // whatever the mesh needs
+            if (chunk.isMeshShown() != shown)
+            {
+                chunk.setMeshShown(shown);
+            }
+            else
+            {
+                chunk.loadPrepared(everything);
+            }
+        }
+    }
+    
+    /**
+     * Calculates the given chunks' points in parallel without loading them
+     * into their meshes
+     * 
+     * @param chunkster The chunks to be calculated
+     * @param dister The displacement map
+     * @param strengthster The multiplier for the displacement map
+     */
+    private void prepare(TerrainChunk[] chunkster, Image dister,
+            int strengthster)
+    {
+        Arrays.stream(chunkster).parallel().forEach((chunk) ->
+                chunk.prepare(dister, strengthster));
+    }
+    
     /**
      * Sets the bump map
      * 
@@ -285,7 +619,37 @@ public class Terrain extends MeshObject
     {
         bumpTexture = bumpster;
         
-        setBump(bumpster.getImage());
+        texture.setBumpMap(bumpster.getImage());
+    }
+    
+    /**
+     * Sets where the camera is viewing the terrain from. In level-of-detail
+     * mode, the patches are re-chosen for the new view in the background.
+     * 
+     * @param eye The camera's eye in the terrain's coordinates
+     * @param focalLength The camera's distance (in pixels) from the screen
+     */
+    public void setCamera(Point3D eye, double focalLength)
+    {
+        if (patches != null)
+        {
+            patches.setCamera(eye, focalLength);
+        }
+    }
+    
+    /**
+     * Sets the number of rows of vertices that the terrain has
+     * 
+     * @param depthster The depth of the terrain in vertices
+     */
+    public void setDepth(short depthster)
+    {
+        beginEdit();
+        
+        depth = depthster;
+        changed = true;
+        
+        commitEdit();
     }
     
     /**
@@ -297,7 +661,7 @@ public class Terrain extends MeshObject
     {
         diffuseTexture = diffster;
         
-        setDiffuse(diffster.getImage());
+        texture.setDiffuseMap(diffster.getImage());
     }
     
     /**
@@ -307,9 +671,73 @@ public class Terrain extends MeshObject
      */
     public void setDisplacement(TextureObject dister)
     {
+        beginEdit();
+        
         displacementTexture = dister;
+        changed = true;
+        
+        commitEdit();
+    }
+    
+    /**
+     * Set the strength of the displacement map
+     * 
+     * @param strengthster The strength of the displacement map
+     */
+    public void setDisplacementStrength(int strengthster)
+    {
+        beginEdit();
+        
+        displacementStrength = strengthster;
+        changed = true;
         
-        setDisplacement(dister.getImage());
+        commitEdit();
+    }
+    
+    /**
+     * Sets whether or not the terrain should be shown in level-of-detail mode.
+     * In this mode, the terrain is split into patches that show less detail
+     * the further they are from the camera.
+     * 
+     * @param enabled Whether or not level-of-detail mode should be used
+     */
+    public void setLevelOfDetail(boolean enabled)
+    {
+        // If the mode is being turned on...
+        if (enabled && patches == null)
+        {
+            patches = new PatchTree(texture);
+            
+            // ...the chunks' meshes are no longer needed.
+            for (TerrainChunk chunster : chunks)
+            {
+                chunster.setMeshShown(false);
+            }
+            
+            patches.setPoints(pointster);
+        }
+        // ...otherwise, if it is being turned off...
+        else if (!enabled && patches != null)
+        {
+            patches = null;
+            
+            // ...the chunks' meshes need their data back.
+            for (TerrainChunk chunster : chunks)
+            {
+                chunster.setMeshShown(true);
+            }
+        }
+    }
+    
+    /**
+     * Sets what should be done each time a finished build is put on screen,
+     * such as moving anything placed upon the terrain
+     * 
+     * @param runster Run on the JavaFX thread after each finished build
+     */
+    public void setOnBuilt(Runnable runster)
+    {
+        onBuilt = runster;
     }
     
     /**
@@ -321,6 +749,96 @@ public class Terrain extends MeshObject
     {
         specularTexture = specster;
         
-        setSpecular(specster.getImage());
+        texture.setSpecularMap(specster.getImage());
+    }
+    
+    /**
+     * Sets the number of columns of vertices that the terrain has
+     * 
+     * @param widthster The width of the terrain in vertices
+     */
+    public void setWidth(short widthster)
+    {
+        beginEdit();
+        
+        width = widthster;
+        changed = true;
+        
+        commitEdit();
+    }
+    
+    /**
+     * Starts building a set of chunks for the terrain's current settings in the
+     * background. Any build still running is overtaken.
+     */
+    private void startBuild()
+    {
+        int versionster = version.incrementAndGet();
+        
+        // Constants of the settings. These are used in the build instead of
+        // the fields to keep them from being changed by this thread while
+        // still in use by the build.
+        final short WIDTH = width;
+        final short DEPTH = depth;
+        final int STRENGTH = displacementStrength;
+        final Image DISPLACEMENT = displacementTexture.getImage();
+        final boolean SHOWN = patches == null;
+        
+        BUILDER.execute(() ->
+                build(versionster, WIDTH, DEPTH, STRENGTH, DISPLACEMENT,
+                        SHOWN));
+    }
+    
+    /**
+     * Puts a finished set of chunks on screen in place of the current set,
+     * which becomes the spare set. Must be called on the JavaFX thread.
+     * 
+     * @param versionster The version that the set was built for
+     * @param built The finished set of chunks
+     */
+    private void swap(int versionster, TerrainPoints built)
+    {
+        // If a newer change was made since the set was built...
+        if (versionster != version.get())
+        {
+            // ...it is not shown, but can still be built into again.
+            spare.set(built);
+        }
+        // ...otherwise...
+        else
+        {
+            // ...put it on screen.
+            TerrainPoints old = pointster;
+            
+            pointster = built;
+            chunks = built.getChunks();
+            
+            List<Node> views = new ArrayList<>();
+            
+            for (TerrainChunk chunster : chunks)
+            {
+                // Level-of-detail mode may have been changed during the build
+                if (chunster.isMeshShown() != (patches == null))
+                {
+                    chunster.setMeshShown(patches == null);
+                }
+                
+                views.add(chunster.getMeshView());
+            }
+            
+            groupster.getChildren().setAll(views);
+            
+            if (patches != null)
+            {
+                patches.setPoints(pointster);
+            }
+            
+            spare.set(old);
+            
+            if (onBuilt != null)
+            {
+                onBuilt.run();
+            }
+        }
     }
 }
@@ -0,0 +1,234 @@
+package graphics;
+
+import javafx.scene.image.Image;
+import javafx.scene.paint.PhongMaterial;
+import javafx.scene.shape.DrawMode;
+
+/**
+ * One section of the terrain's grid of vertices with its own mesh.
+ * 
+ * The terrain is split into chunks so that no single array or mesh has to hold
+ * the whole terrain. Neighboring chunks share the vertices along the edge
+ * between them. Each chunk samples only its own part of the displacement map
+ * and gives its vertices the positions and UVs they have within the full
+ * terrain, so the chunks line up seamlessly.
+ * 
+ * @author George Tiersma
+ */
+public class TerrainChunk extends MeshObject
+{
+    // The greatest number of faces across each side of a chunk
+    public static final short CHUNK_FACES = 255;
+    
+    // The numbers of the chunk's first column and row of vertices within the
+    // terrain
+    private int firstColumn;
+    private int firstRow;
+    
+    // Whether or not the chunk's mesh shows it. It does not while the terrain
+    // is in level-of-detail mode.
+    private boolean meshShown;
+    
+    // The displacement map the chunk's pixel colors were last taken from
+    private Image sampledImage;
+    
+    /**
+     * CONSTRUCTOR
+     * 
+     * @param fSize The length of each side of each face on the mesh when the
+     *              mesh is not displaced
+     * @param widthster The width of the chunk in vertices
+     * @param depthster The depth of the chunk in vertices
+     * @param firstX The number of the chunk's first column of vertices within
+     *               the terrain
+     * @param firstZ The number of the chunk's first row of vertices within the
+     *               terrain
+     * @param terrainWidth The width of the terrain in vertices
+     * @param terrainDepth The depth of the terrain in vertices
+     * @param strengthster The multiplier for the displacement map that is set
+     *                     by the user
+     * @param dister The displacement map
+     * @param materialster The material shared by every chunk of the terrain
+     */
+    public TerrainChunk(short fSize, short widthster, short depthster,
+            int firstX, int firstZ, int terrainWidth, int terrainDepth,
+            int strengthster, Image dister, PhongMaterial materialster)
+    {
+        // The chunk's UVs depend upon where it is in the terrain, so they
+        // cannot be shared with other meshes of the same size
+        super(fSize, fSize, widthster, depthster, strengthster, dister,
+                new DisplacementBuffer(widthster, depthster, firstX, firstZ,
+                terrainWidth, terrainDepth), createTexturePositions(widthster,
+                depthster, firstX, firstZ, terrainWidth, terrainDepth));
+        
+        firstColumn = firstX;
+        firstRow = firstZ;
+        
+        meshShown = true;
+        
+        sampledImage = null;
+        
+        texture = materialster;
+    }
+    
+    /**
+     * Calculates the UV data for a chunk, giving each vertex the UV position
+     * it has within the full terrain
+     * 
+     * @param width The width of the chunk in vertices
+     * @param depth The depth of the chunk in vertices
+     * @param firstColumn The number of the chunk's first column of vertices
+     *                    within the terrain
+     * @param firstRow The number of the chunk's first row of vertices within
+     *                 the terrain
+     * @param terrainWidth The width of the terrain in vertices
+     * @param terrainDepth The depth of the terrain in vertices
+     * 
+     * @return The UV data
+     */
+    private static float[] createTexturePositions(int width, int depth,
+            int firstColumn, int firstRow, int terrainWidth, int terrainDepth)
+    {
+        float[] positions = new float[width * depth * 2];
+        
+        // The percentage of the width and height of the maps that each face
+        // of the terrain would occupy
+        float faceSizeU = (float)(1.0 / (terrainWidth - 1));
+        float faceSizeV = (float)(1.0 / (terrainDepth - 1));
+        
+        int i = 0;
+        
+        for (int z = 0; z < depth; z++)
+        {
+            // Rows are numbered in reverse to keep the maps from being flipped
+            int v = terrainDepth - 1 - (firstRow + z);
+            
+            for (int x = 0; x < width; x++)
+            {
+                positions[i] = (firstColumn + x) * faceSizeU;
+                positions[i + 1] = v * faceSizeV;
+                
+                i = i + 2;
+            }
+        }
+        
+        return positions;
+    }
+    
+    /**
+     * Gets the number of the chunk's first column of vertices within the
+     * terrain
+     * 
+     * @return The first column
+     */
+    public int getFirstColumn()
+    {
+        return firstColumn;
+    }
+    
+    /**
+     * Gets the number of the chunk's first row of vertices within the terrain
+     * 
+     * @return The first row
+     */
+    public int getFirstRow()
+    {
+        return firstRow;
+    }
+    
+    /**
+     * Gets the position on one scale of one of the chunk's vertices
+     * 
+     * @param x The column of the vertex within the chunk
+     * @param z The row of the vertex within the chunk
+     * @param dimension The scale (0 for x, 1 for y and 2 for z)
+     * 
+     * @return The vertex's position
+     */
+    public float getPosition(int x, int z, int dimension)
+    {
+        return points[(z * width + x) * DIMENSIONS + dimension];
+    }
+    
+    /**
+     * Gets whether or not the chunk is shown by its mesh
+     * 
+     * @return Whether or not the mesh shows the chunk
+     */
+    @Override
+    protected boolean isMeshShown()
+    {
+        return meshShown;
+    }
+    
+    /**
+     * Loads the data last prepared into the mesh. Once the chunk is in the
+     * preview, this must be called on the JavaFX thread.
+     * 
+     * @param everything Whether or not the UVs and faces should be loaded as
+     *                   well as the points. They only need to be loaded the
+     *                   first time.
+     */
+    public void loadPrepared(boolean everything)
+    {
+        uploader.reset();
+        
+        loadCalculatedPoints();
+        
+        if (everything)
+        {
+            loadTexturePositions();
+            loadFaces();
+            
+            viewster.setDrawMode(DrawMode.FILL);
+            viewster.setMaterial(texture);
+        }
+    }
+    
+    /**
+     * Prepares the chunk's point data without loading it into the mesh. The
+     * mesh is not touched, so chunks may be prepared in parallel. The pixel
+     * colors are only taken from the displacement map again if it is not the
+     * map they were last taken from.
+     * 
+     * @param dister The displacement map
+     * @param strengthster The multiplier for the displacement map that is set
+     *                     by the user
+     */
+    public void prepare(Image dister, int strengthster)
+    {
+        displacement = dister;
+        displacementStrength = strengthster;
+        
+        if (dister != sampledImage)
+        {
+            loadDisplacementPixels();
+            
+            sampledImage = dister;
+        }
+        
+        calculatePoints();
+    }
+    
+    /**
+     * Sets whether or not the chunk's mesh should show it. The mesh lets go of
+     * its data while it is not shown.
+     * 
+     * @param shown Whether or not the mesh should show the chunk
+     */
+    public void setMeshShown(boolean shown)
+    {
+        meshShown = shown;
+        
+        if (meshShown)
+        {
+            loadPrepared(true);
+        }
+        else
+        {
+            meshster.getPoints().clear();
+            meshster.getTexCoords().clear();
+            meshster.getFaces().clear();
+        }
+    }
+}
@@ -0,0 +1,634 @@
+package graphics;
+
+import javafx.geometry.Point3D;
+import javafx.scene.shape.MeshView;
+
+/**
+ * One rectangular section of the terrain in a PatchTree.
+ * 
+ * Every patch has the same number of faces across, so a patch covering a
+ * larger area skips over more of the terrain's vertices (its stride) and shows
+ * less detail. Each patch is split into up to 4 patches covering a quarter of
+ * its area at twice its detail, down to the patches that use every vertex.
+ * 
+ * @author George Tiersma
+ */
+public class TerrainPatch
+{
+    // The number of faces across each side of a patch
+    public static final short PATCH_FACES = 32;
+    
+    // The number of dimensions
+    private static final byte DIMENSIONS = 3;
+    
+    // The numbers of the first and last column and row of the terrain's
+    // vertices that the patch covers
+    private final int firstColumn;
+    private final int firstRow;
+    private final int lastColumn;
+    private final int lastRow;
+    
+    // The number of the terrain's vertices from one of the patch's vertices to
+    // the next
+    private final int stride;
+    
+    // How far out of place (in the terrain's units) any of the terrain's
+    // vertices are when the terrain is shown with this patch instead of the
+    // most detailed ones
+    private float error;
+    
+    // The lowest and highest position on each scale of any vertex in the patch
+    private float[] lowest;
+    private float[] highest;
+    
+    // The strides of the neighboring patches on each side (left, right, front
+    // and back) the last time the patch's mesh was built. Null if the patch's
+    // mesh has not been built.
+    private int[] stitching;
+    
+    // The patches covering each quarter of this patch at twice its detail
+    private TerrainPatch[] children;
+    
+    // The view containing the patch's mesh. Null while the patch is not shown.
+    private MeshView viewster;
+    
+    /**
+     * CONSTRUCTOR
+     * 
+     * @param firstX The number of the first column of vertices covered
+     * @param firstZ The number of the first row of vertices covered
+     * @param lastX The number of the last column of vertices covered
+     * @param lastZ The number of the last row of vertices covered
+     * @param strideSize The number of the terrain's vertices from one of the
+     *                   patch's vertices to the next
+     */
+    public TerrainPatch(int firstX, int firstZ, int lastX, int lastZ,
+            int strideSize)
+    {
+        firstColumn = firstX;
+        firstRow = firstZ;
+        lastColumn = lastX;
+        lastRow = lastZ;
+        
+        stride = strideSize;
+        
+        error = 0;
+        
+        lowest = new float[DIMENSIONS];
+        highest = new float[DIMENSIONS];
+        
+        stitching = null;
+        
+        children = new TerrainPatch[0];
+        
+        viewster = null;
+    }
+    
+    /**
+     * Calculates the lowest and highest position of the patch's vertices on
+     * each scale. The bounds of the patch's children must already be
+     * calculated.
+     * 
+     * @param points The terrain's point data
+     */
+    public void calculateBounds(TerrainPoints points)
+    {
+        // If this is one of the most detailed patches...
+        if (children.length == 0)
+        {
+            // ...check every vertex it covers.
+            for (byte i = 0; i < DIMENSIONS; i++)
+            {
+                lowest[i] = Float.MAX_VALUE;
+                highest[i] = -Float.MAX_VALUE;
+            }
+            
+            for (int z = firstRow; z <= lastRow; z++)
+            {
+                for (int x = firstColumn; x <= lastColumn; x++)
+                {
+                    for (byte i = 0; i < DIMENSIONS; i++)
+                    {
+                        float position = points.getPosition(x, z, i);
+                        
+                        lowest[i] = Math.min(lowest[i], position);
+                        highest[i] = Math.max(highest[i], position);
+                    }
+                }
+            }
+        }
+        // ...otherwise...
+        else
+        {
+            // ...its bounds are the bounds of all of its children.
+            System.arraycopy(children[0].lowest, 0, lowest, 0, DIMENSIONS);
+            System.arraycopy(children[0].highest, 0, highest, 0, DIMENSIONS);
+            
+            for (TerrainPatch child : children)
+            {
+                for (byte i = 0; i < DIMENSIONS; i++)
+                {
+                    lowest[i] = Math.min(lowest[i], child.lowest[i]);
+                    highest[i] = Math.max(highest[i], child.highest[i]);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Calculates how far out of place the terrain's vertices are when this
+     * patch is shown instead of the most detailed patches. The error of the
+     * patch's children must already be calculated.
+     * 
+     * @param points The terrain's point data
+     */
+    public void calculateError(TerrainPoints points)
+    {
+        error = 0;
+        
+        // As long as this is not one of the most detailed patches...
+        if (children.length > 0)
+        {
+            // ...the vertices that the children show but this patch does not
+            // are compared against where this patch's faces would put them.
+            int[] columns = getPositions(firstColumn, lastColumn, stride / 2);
+            int[] rows = getPositions(firstRow, lastRow, stride / 2);
+            
+            for (int z : rows)
+            {
+                for (int x : columns)
+                {
+                    for (byte i = 0; i < DIMENSIONS; i++)
+                    {
+                        float difference = Math.abs(points.getPosition(x, z, i)
+                                - interpolate(points, x, z, i));
+                        
+                        error = Math.max(error, difference);
+                    }
+                }
+            }
+            
+            // The children's own error is added on so that a patch is never
+            // considered more accurate than its children
+            float childError = 0;
+            
+            for (TerrainPatch child : children)
+            {
+                childError = Math.max(childError, child.error);
+            }
+            
+            error = error + childError;
+        }
+    }
+    
+    /**
+     * Creates the point data for the patch's mesh. The vertices along any side
+     * bordering a less detailed patch are moved onto that patch's edge so that
+     * no gaps open up between the two.
+     * 
+     * @param points The terrain's point data
+     * @param neighbors The strides of the neighboring patches on the left,
+     *                  right, front and back sides. 0 for a side on the edge of
+     *                  the terrain.
+     * 
+     * @return The patch's point data
+     */
+    public float[] createPoints(TerrainPoints points, int[] neighbors)
+    {
+        int[] columns = getPositions(firstColumn, lastColumn, stride);
+        int[] rows = getPositions(firstRow, lastRow, stride);
+        
+        float[] patchPoints = new float[columns.length * rows.length
+                * DIMENSIONS];
+        
+        // An incrementor for the patch's point array
+        int i = 0;
+        
+        for (int z = 0; z < rows.length; z++)
+        {
+            for (int x = 0; x < columns.length; x++)
+            {
+                // The strides of the neighbors bordering the vertex on the
+                // sides running along the z and x axis
+                int sideStride = stride;
+                int endStride = stride;
+                
+                if (x == 0)
+                {
+                    sideStride = Math.max(sideStride, neighbors[0]);
+                }
+                else if (x == columns.length - 1)
+                {
+                    sideStride = Math.max(sideStride, neighbors[1]);
+                }
+                
+                if (z == 0)
+                {
+                    endStride = Math.max(endStride, neighbors[2]);
+                }
+                else if (z == rows.length - 1)
+                {
+                    endStride = Math.max(endStride, neighbors[3]);
+                }
+                
+                // The stride of the less detailed neighbor that the vertex
+                // needs to be moved onto. It stays the same as this patch's
+                // own stride if there is none.
+                int edgeStride = sideStride;
+                // Whether that neighbor's edge runs along the x axis
+                boolean acrossX = false;
+                
+                // A corner vertex may border 2 less detailed neighbors, but it
+                // can only fall between the vertices of one of them
+                if (endStride > stride && columns[x] % endStride != 0)
+                {
+                    edgeStride = endStride;
+                    acrossX = true;
+                }
+                
+                for (byte j = 0; j < DIMENSIONS; j++)
+                {
+                    // If the vertex borders a less detailed patch...
+                    if (edgeStride > stride)
+                    {
+                        // ...place it on the straight line between that
+                        // patch's vertices on either side of it.
+                        patchPoints[i + j] = interpolateEdge(points,
+                                columns[x], rows[z], edgeStride, acrossX, j);
+                    }
+                    else
+                    {
+                        patchPoints[i + j] = points.getPosition(columns[x],
+                                rows[z], j);
+                    }
+                }
+                
+                i = i + DIMENSIONS;
+            }
+        }
+        
+        return patchPoints;
+    }
+    
+    /**
+     * Creates the UV data for the patch's mesh. Each vertex is given the same
+     * UV position it has in the full terrain so the maps line up between
+     * patches.
+     * 
+     * @param width The width of the terrain in vertices
+     * @param depth The depth of the terrain in vertices
+     * 
+     * @return The patch's UV data
+     */
+    public float[] createTexturePositions(int width, int depth)
+    {
+        int[] columns = getPositions(firstColumn, lastColumn, stride);
+        int[] rows = getPositions(firstRow, lastRow, stride);
+        
+        float[] texturePositions = new float[columns.length * rows.length * 2];
+        
+        // The percentage of the width and height of the maps that each face
+        // of the full terrain would occupy
+        float faceSizeU = (float)(1.0 / (width - 1));
+        float faceSizeV = (float)(1.0 / (depth - 1));
+        
+        int i = 0;
+        
+        for (int z : rows)
+        {
+            for (int x : columns)
+            {
+                texturePositions[i] = x * faceSizeU;
+                // Rows are numbered in reverse to keep the maps from being
+                // flipped
+                texturePositions[i + 1] = (depth - 1 - z) * faceSizeV;
+                
+                i = i + 2;
+            }
+        }
+        
+        return texturePositions;
+    }
+    
+    /**
+     * Gets the patches covering each quarter of this patch at twice its detail
+     * 
+     * @return The patch's children. Empty if this is one of the most detailed
+     *         patches.
+     */
+    public TerrainPatch[] getChildren()
+    {
+        return children;
+    }
+    
+    /**
+     * Gets the number of columns of vertices in the patch's mesh
+     * 
+     * @return The number of columns
+     */
+    public int getColumnsAmount()
+    {
+        return getPositions(firstColumn, lastColumn, stride).length;
+    }
+    
+    /**
+     * Gets the distance from the given position to the closest point of the
+     * box surrounding the patch
+     * 
+     * @param eye The position to measure from
+     * 
+     * @return The distance. 0 if the position is inside of the box.
+     */
+    public double getDistance(Point3D eye)
+    {
+        double[] position = {eye.getX(), eye.getY(), eye.getZ()};
+        
+        double total = 0;
+        
+        for (byte i = 0; i < DIMENSIONS; i++)
+        {
+            double outside = 0;
+            
+            if (position[i] < lowest[i])
+            {
+                outside = lowest[i] - position[i];
+            }
+            else if (position[i] > highest[i])
+            {
+                outside = position[i] - highest[i];
+            }
+            
+            total = total + outside * outside;
+        }
+        
+        return Math.sqrt(total);
+    }
+    
+    /**
+     * Gets how far out of place any of the terrain's vertices are when this
+     * patch is shown instead of the most detailed patches
+     * 
+     * @return The patch's error
+     */
+    public float getError()
+    {
+        return error;
+    }
+    
+    /**
+     * Gets the number of the first column of the terrain's vertices that the
+     * patch covers
+     * 
+     * @return The first column
+     */
+    public int getFirstColumn()
+    {
+        return firstColumn;
+    }
+    
+    /**
+     * Gets the number of the first row of the terrain's vertices that the
+     * patch covers
+     * 
+     * @return The first row
+     */
+    public int getFirstRow()
+    {
+        return firstRow;
+    }
+    
+    /**
+     * Gets the number of the last column of the terrain's vertices that the
+     * patch covers
+     * 
+     * @return The last column
+     */
+    public int getLastColumn()
+    {
+        return lastColumn;
+    }
+    
+    /**
+     * Gets the number of the last row of the terrain's vertices that the patch
+     * covers
+     * 
+     * @return The last row
+     */
+    public int getLastRow()
+    {
+        return lastRow;
+    }
+    
+    /**
+     * Gets the numbers of the terrain's vertices that are used along one side
+     * of a patch. The last vertex is always used, even if it does not land on
+     * a multiple of the step.
+     * 
+     * @param first The number of the first vertex
+     * @param last The number of the last vertex
+     * @param step The number of vertices from one used vertex to the next
+     * 
+     * @return The numbers of the vertices used
+     */
+    private static int[] getPositions(int first, int last, int step)
+    {
+        int[] positions = new int[(last - first + step - 1) / step + 1];
+        
+        for (int i = 0; i < positions.length - 1; i++)
+        {
+            positions[i] = first + i * step;
+        }
+        
+        positions[positions.length - 1] = last;
+        
+        return positions;
+    }
+    
+    /**
+     * Gets the number of rows of vertices in the patch's mesh
+     * 
+     * @return The number of rows
+     */
+    public int getRowsAmount()
+    {
+        return getPositions(firstRow, lastRow, stride).length;
+    }
+    
+    /**
+     * Gets the strides of the neighboring patches that the patch's mesh was
+     * last built for
+     * 
+     * @return The strides of the neighbors on the left, right, front and back
+     *         sides. Null if the mesh has not been built.
+     */
+    public int[] getStitching()
+    {
+        return stitching;
+    }
+    
+    /**
+     * Gets the number of the terrain's vertices from one of the patch's
+     * vertices to the next
+     * 
+     * @return The patch's stride
+     */
+    public int getStride()
+    {
+        return stride;
+    }
+    
+    /**
+     * Gets the view containing the patch's mesh
+     * 
+     * @return The patch's view. Null while the patch is not shown.
+     */
+    public MeshView getView()
+    {
+        return viewster;
+    }
+    
+    /**
+     * Gets the position on one scale of the point on this patch's faces that a
+     * vertex of the terrain falls on
+     * 
+     * @param points The terrain's point data
+     * @param x The column of the terrain's vertex
+     * @param z The row of the terrain's vertex
+     * @param dimension The scale (0 for x, 1 for y and 2 for z)
+     * 
+     * @return The position on the patch's faces
+     */
+    private float interpolate(TerrainPoints points, int x, int z,
+            byte dimension)
+    {
+        // The patch's vertices at the corners of the face the vertex is in
+        int left = firstColumn + (x - firstColumn) / stride * stride;
+        int right = Math.min(left + stride, lastColumn);
+        int front = firstRow + (z - firstRow) / stride * stride;
+        int back = Math.min(front + stride, lastRow);
+        
+        // How far across the face the vertex is
+        float across = 0;
+        float down = 0;
+        
+        if (right > left)
+        {
+            across = (float)(x - left) / (right - left);
+        }
+        if (back > front)
+        {
+            down = (float)(z - front) / (back - front);
+        }
+        
+        float frontLeft = points.getPosition(left, front, dimension);
+        float frontRight = points.getPosition(right, front, dimension);
+        float backLeft = points.getPosition(left, back, dimension);
+        float backRight = points.getPosition(right, back, dimension);
+        
+        float position;
+        
+        // Each face is split into 2 triangles along the diagonal from its
+        // front left to its back right corner, so the triangle the vertex is
+        // in decides which corners it is placed between.
+        if (across >= down)
+        {
+            position = frontLeft + across * (frontRight - frontLeft)
+                    + down * (backRight - frontRight);
+        }
+        else
+        {
+            position = frontLeft + down * (backLeft - frontLeft)
+                    + across * (backRight - backLeft);
+        }
+        
+        return position;
+    }
+    
+    /**
+     * Gets the position on one scale of a vertex along the edge of a less
+     * detailed neighboring patch
+     * 
+     * @param points The terrain's point data
+     * @param x The column of the terrain's vertex
+     * @param z The row of the terrain's vertex
+     * @param edgeStride The stride of the neighboring patch
+     * @param acrossX Whether the edge runs along the x axis
+     * @param dimension The scale (0 for x, 1 for y and 2 for z)
+     * 
+     * @return The position on the neighbor's edge
+     */
+    private float interpolateEdge(TerrainPoints points, int x, int z,
+            int edgeStride, boolean acrossX, byte dimension)
+    {
+        // Where the vertex is along the edge and where the edge ends
+        int along = z;
+        int end = points.getDepth() - 1;
+        
+        if (acrossX)
+        {
+            along = x;
+            end = points.getWidth() - 1;
+        }
+        
+        // The neighbor's vertices on either side of this one. Every patch
+        // starts on a multiple of its stride, so they can be found without
+        // knowing where the neighbor starts.
+        int before = along / edgeStride * edgeStride;
+        int after = Math.min(before + edgeStride, end);
+        
+        float amount = 0;
+        
+        if (after > before)
+        {
+            amount = (float)(along - before) / (after - before);
+        }
+        
+        float beforePosition;
+        float afterPosition;
+        
+        if (acrossX)
+        {
+            beforePosition = points.getPosition(before, z, dimension);
+            afterPosition = points.getPosition(after, z, dimension);
+        }
+        else
+        {
+            beforePosition = points.getPosition(x, before, dimension);
+            afterPosition = points.getPosition(x, after, dimension);
+        }
+        
+        return beforePosition + amount * (afterPosition - beforePosition);
+    }
+    
+    /**
+     * Sets the patches covering each quarter of this patch at twice its detail
+     * 
+     * @param childster The patch's children
+     */
+    public void setChildren(TerrainPatch[] childster)
+    {
+        children = childster;
+    }
+    
+    /**
+     * Sets the strides of the neighboring patches that the patch's mesh was
+     * last built for
+     * 
+     * @param neighbors The strides of the neighbors on the left, right, front
+     *                  and back sides. Null if the mesh is no longer built.
+     */
+    public void setStitching(int[] neighbors)
+    {
+        stitching = neighbors;
+    }
+    
+    /**
+     * Sets the view containing the patch's mesh
+     * 
+     * @param view The patch's view. Null when the patch is no longer shown.
+     */
+    public void setView(MeshView view)
+    {
+        viewster = view;
+    }
+}
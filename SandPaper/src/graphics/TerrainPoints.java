@@ -0,0 +1,147 @@
+package graphics;
+
+/**
+ * Gives access to the positions of the terrain's vertices by their column and
+ * row, finding which of the terrain's chunks holds each one. This takes the
+ * place of a single point array covering the whole terrain.
+ * 
+ * @author George Tiersma
+ */
+public class TerrainPoints
+{
+    // The terrain's chunks, numbered left to right, top to bottom
+    private TerrainChunk[] chunks;
+    
+    // The number of columns of chunks
+    private int chunkColumns;
+    // The number of rows of chunks
+    private int chunkRows;
+    
+    // The width of the terrain in vertices
+    private int width;
+    // The depth of the terrain in vertices
+    private int depth;
+    
+    /**
+     * CONSTRUCTOR
+     * 
+     * @param chunkster The terrain's chunks, numbered left to right, top to
+     *                  bottom
+     * @param columns The number of columns of chunks
+     * @param widthster The width of the terrain in vertices
+     * @param depthster The depth of the terrain in vertices
+     */
+    public TerrainPoints(TerrainChunk[] chunkster, int columns, int widthster,
+            int depthster)
+    {
+        chunks = chunkster;
+        
+        chunkColumns = columns;
+        chunkRows = chunks.length / columns;
+        
+        width = widthster;
+        depth = depthster;
+    }
+    
+    /**
+     * Gets the chunks holding the vertices
+     * 
+     * @return The terrain's chunks, numbered left to right, top to bottom
+     */
+    public TerrainChunk[] getChunks()
+    {
+        return chunks;
+    }
+    
+    /**
+     * Gets the number of columns of chunks
+     * 
+     * @return The number of columns of chunks
+     */
+    public int getChunkColumns()
+    {
+        return chunkColumns;
+    }
+    
+    /**
+     * Gets the depth of the terrain
+     * 
+     * @return The depth of the terrain in vertices
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+    
+    /**
+     * Gets the position on one scale of one of the terrain's vertices
+     * 
+     * @param x The column of the vertex
+     * @param z The row of the vertex
+     * @param dimension The scale (0 for x, 1 for y and 2 for z)
+     * 
+     * @return The vertex's position
+     */
+    public float getPosition(int x, int z, int dimension)
+    {
+        // The chunk holding the vertex. A vertex on the edge between 2 chunks
+        // is held by both, so the one after the edge is used, unless the
+        // vertex is on the terrain's last column or row.
+        int chunkX = Math.min(x / TerrainChunk.CHUNK_FACES, chunkColumns - 1);
+        int chunkZ = Math.min(z / TerrainChunk.CHUNK_FACES, chunkRows - 1);
+        
+        TerrainChunk chunster = chunks[chunkZ * chunkColumns + chunkX];
+        
+        return chunster.getPosition(x - chunster.getFirstColumn(),
+                z - chunster.getFirstRow(), dimension);
+    }
+    
+    /**
+     * Gets the width of the terrain
+     * 
+     * @return The width of the terrain in vertices
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+    
+    /**
+     * Gets the position of one of the terrain's vertices on the x scale
+     * 
+     * @param x The column of the vertex
+     * @param z The row of the vertex
+     * 
+     * @return The vertex's position on the x scale
+     */
+    public float getX(int x, int z)
+    {
+        return getPosition(x, z, 0);
+    }
+    
+    /**
+     * Gets the position of one of the terrain's vertices on the y scale
+     * 
+     * @param x The column of the vertex
+     * @param z The row of the vertex
+     * 
+     * @return The vertex's position on the y scale
+     */
+    public float getY(int x, int z)
+    {
+        return getPosition(x, z, 1);
+    }
+    
+    /**
+     * Gets the position of one of the terrain's vertices on the z scale
+     * 
+     * @param x The column of the vertex
+     * @param z The row of the vertex
+     * 
+     * @return The vertex's position on the z scale
+     */
+    public float getZ(int x, int z)
+    {
+        return getPosition(x, z, 2);
+    }
+}
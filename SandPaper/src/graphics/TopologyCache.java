@@ -0,0 +1,265 @@
+package graphics;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A cache of the face and UV data shared by every mesh of the same size.
+ * 
+ * A mesh's faces and UV positions depend only upon its width and depth, so
+ * every mesh of a given size (such as every Individual in a Population) is
+ * handed the same arrays instead of calculating and storing its own. The arrays
+ * handed out are shared, so they must never be modified.
+ * 
+ * The cache only holds onto a size's arrays for as long as a mesh is still
+ * using them, so sizes that are no longer in use do not take up memory.
+ * 
+ * @author George Tiersma
+ */
+public class TopologyCache
+{
+    // The number of integers in the face array that are needed to define each
+    // face
+    private static final byte INTS_PER_FACE = 6;
+    
+    // The face data for each size, keyed by the size's key
+    private static final Map<Long, WeakReference<int[]>> FACES
+            = new HashMap<>();
+    // The UV data for each size, keyed by the size's key
+    private static final Map<Long, WeakReference<float[]>> TEXTURE_POSITIONS
+            = new HashMap<>();
+    
+    /**
+     * CONSTRUCTOR
+     */
+    private TopologyCache() {}
+    
+    /**
+     * Calculates the face data for a mesh
+     * 
+     * @param width The width of the mesh in vertices
+     * @param depth The depth of the mesh in vertices
+     * 
+     * @return The face data
+     */
+    private static int[] createFaces(int width, int depth)
+    {
+        int facesAmount = (width - 1) * (depth - 1) * 2;
+        
+        int[] faces = new int[facesAmount * INTS_PER_FACE];
+        
+        // The number of which vertex the face being created is based upon. The
+        // vertices are number from left to right, top to bottom.
+        int point = 0;
+        
+        // For every set of values for each 2 faces in the face array...
+        for (int i = 0; i + 1 < facesAmount * INTS_PER_FACE;
+                i = i + INTS_PER_FACE * 2)
+        {
+            // ...if the point the face is being built off of is not at the
+            // vertical edge on the right side of the mesh...
+            if (!((point + 1) % width == 0))
+            {
+                // ...get the points for the first of the 2 faces.
+                faces[i] = point + width + 1;
+                faces[i + 1] = point + width + 1;
+                faces[i + 2] = point + width;
+                faces[i + 3] = point + width;
+                faces[i + 4] = point;
+                faces[i + 5] = point;
+                
+                // Get the points for the second of the 2 faces
+                faces[i + INTS_PER_FACE] = point + 1;
+                faces[i + INTS_PER_FACE + 1] = point + 1;
+                faces[i + INTS_PER_FACE + 2] = point + width + 1;
+                faces[i + INTS_PER_FACE + 3] = point + width + 1;
+                faces[i + INTS_PER_FACE + 4] = point;
+                faces[i + INTS_PER_FACE + 5] = point;
+            }
+            // ...otherwise...
+            else
+            {
+                // ...no faces should be built off of the points on the right
+                // edge of the mesh, so no values will be assigned for this
+                // iteration.
+                // This line of code prevents the incrementor from incrementing
+                // this iteration. If this was not here, there would be null
+                // values in the face array for the 12 elements being skipped
+                // over.
+                i = i - INTS_PER_FACE * 2;
+            }
+            
+            // Move to the next point for the next iteration
+            point++;
+        }
+        
+        return faces;
+    }
+    
+    /**
+     * Calculates the UV data for a mesh
+     * 
+     * @param width The width of the mesh in vertices
+     * @param depth The depth of the mesh in vertices
+     * 
+     * @return The UV data
+     */
+    private static float[] createTexturePositions(int width, int depth)
+    {
+        float[] texturePositions = new float[width * depth * 2];
+        
+        // The percentage of the width and height of the displacement image that
+        // each face would occupy
+        float faceSizeU = (float)(1.0 / (width - 1));
+        float faceSizeV = (float)(1.0 / (depth - 1));
+        
+        // An incrementor for the array
+        int i = 0;
+        
+        // For each row in reverse order... (reverse order prevents the maps
+        // from being flipped horizontally)
+        for (int v = depth - 1; v > -1; v--)
+        {
+            // ...and for each column...
+            for (int u = 0; u < width; u++)
+            {
+                // ...get the percentage that the point is from the vertical
+                // edges.
+                texturePositions[i] = u * faceSizeU;
+                // Get the percentage that the pooint is from the horizontal
+                // edges
+                texturePositions[i + 1] = v * faceSizeV;
+                
+                i = i + 2;
+            }
+        }
+        
+        return texturePositions;
+    }
+    
+    /**
+     * Gets the face data for a mesh of the given size. The array returned is
+     * shared and must not be modified.
+     * 
+     * @param width The width of the mesh in vertices
+     * @param depth The depth of the mesh in vertices
+     * 
+     * @return The face data
+     */
+    public static int[] getFaces(int width, int depth)
+    {
+        Long key = getKey(width, depth);
+        
+        int[] faces = null;
+        
+        synchronized (FACES)
+        {
+            WeakReference<int[]> reference = FACES.get(key);
+            
+            if (reference != null)
+            {
+                faces = reference.get();
+            }
+        }
+        
+        // If this size has not been calculated yet...
+        if (faces == null)
+        {
+            // ...calculate it. This is done outside of the lock so a large
+            // mesh does not hold up meshes of other sizes.
+            faces = createFaces(width, depth);
+            
+            synchronized (FACES)
+            {
+                // If another mesh finished calculating this size first, use
+                // its copy so that only one copy is ever shared
+                WeakReference<int[]> reference = FACES.get(key);
+                int[] cached = null;
+                
+                if (reference != null)
+                {
+                    cached = reference.get();
+                }
+                
+                if (cached != null)
+                {
+                    faces = cached;
+                }
+                else
+                {
+                    FACES.put(key, new WeakReference<>(faces));
+                }
+            }
+        }
+        
+        return faces;
+    }
+    
+    /**
+     * Gets the key that a mesh size is stored under in the cache
+     * 
+     * @param width The width of the mesh in vertices
+     * @param depth The depth of the mesh in vertices
+     * 
+     * @return The key for the size
+     */
+    private static Long getKey(int width, int depth)
+    {
+        return ((long)width << Integer.SIZE) | depth;
+    }
+    
+    /**
+     * Gets the UV data for a mesh of the given size. The array returned is
+     * shared and must not be modified.
+     * 
+     * @param width The width of the mesh in vertices
+     * @param depth The depth of the mesh in vertices
+     * 
+     * @return The UV data
+     */
+    public static float[] getTexturePositions(int width, int depth)
+    {
+        Long key = getKey(width, depth);
+        
+        float[] texturePositions = null;
+        
+        synchronized (TEXTURE_POSITIONS)
+        {
+            WeakReference<float[]> reference = TEXTURE_POSITIONS.get(key);
+            
+            if (reference != null)
+            {
+                texturePositions = reference.get();
+            }
+        }
+        
+        if (texturePositions == null)
+        {
+            texturePositions = createTexturePositions(width, depth);
+            
+            synchronized (TEXTURE_POSITIONS)
+            {
+                WeakReference<float[]> reference = TEXTURE_POSITIONS.get(key);
+                float[] cached = null;
+                
+                if (reference != null)
+                {
+                    cached = reference.get();
+                }
+                
+                if (cached != null)
+                {
+                    texturePositions = cached;
+                }
+                else
+                {
+                    TEXTURE_POSITIONS.put(key,
+                            new WeakReference<>(texturePositions));
+                }
+            }
+        }
+        
+        return texturePositions;
+    }
+}
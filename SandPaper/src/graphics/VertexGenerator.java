@@ -0,0 +1,223 @@
+package graphics;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Calculates the positions of a mesh's vertices. The mesh is split into bands
+ * of rows that are calculated in parallel, with each band writing its results
+ * directly into the mesh's point array.
+ * 
+ * @author George Tiersma
+ */
+public class VertexGenerator extends RecursiveAction
+{
+    // The tasks are never serialized, but RecursiveAction is Serializable
+    private static final long serialVersionUID = 1L;
+    
+    // The number of dimensions
+    private static final byte DIMENSIONS = 3;
+    
+    // The least number of vertices that a band of rows is allowed to be split
+    // into. Splitting the work any smaller costs more to schedule than it
+    // saves.
+    private static final int BAND_VERTICES = 4096;
+    
+    // The center value for a color value's range (which is 0.0 - 1.0)
+    private static final double MIDDLE_COLOR = 0.5;
+    
+    // The pool shared by every mesh for calculating the positions of vertices
+    private static final ForkJoinPool POOL = new ForkJoinPool();
+    
+    // The size of each side of each face on the mesh when the mesh is not
+    // displaced
+    private final int faceWidth;
+    private final int faceDepth;
+    
+    // The width of the mesh in vertices
+    private final int width;
+    
+    // The first row of vertices in this band and the row after the last one
+    private final int firstRow;
+    private final int endRow;
+    
+    // The strength of the displacement map
+    private final int strength;
+    
+    // The array that the positions are to be written to
+    private final float[] points;
+    
+    // The color data for each vertex taken from the displacement map
+    private final DisplacementBuffer samples;
+    
+    /**
+     * CONSTRUCTOR
+     * 
+     * @param fWidth The width of each face on the mesh when the mesh is not
+     *               displaced
+     * @param fDepth The depth of each face on the mesh when the mesh is not
+     *               displaced
+     * @param widthster The width of the mesh in vertices
+     * @param first The first row of vertices to be calculated
+     * @param end The row after the last row of vertices to be calculated
+     * @param strengthster The strength of the displacement map
+     * @param pointster The array that the positions are to be written to
+     * @param samplester The color data for each vertex taken from the
+     *                   displacement map
+     */
+    private VertexGenerator(int fWidth, int fDepth, int widthster, int first,
+            int end, int strengthster, float[] pointster,
+            DisplacementBuffer samplester)
+    {
+        faceWidth = fWidth;
+        faceDepth = fDepth;
+        
+        width = widthster;
+        
+        firstRow = first;
+        endRow = end;
+        
+        strength = strengthster;
+        
+        points = pointster;
+        
+        samples = samplester;
+    }
+    
+    /**
+     * Calculates the positions of every vertex in this band's rows
+     */
+    private void calculateRows()
+    {
+        // Where the vertices lie within the full mesh, for when the samples
+        // are only for a section of it
+        int columnOffset = samples.getFirstColumn();
+        int rowOffset = samples.getFirstRow();
+        
+        // The number of the first vertex in this band
+        int vertex = firstRow * width;
+        // The index of the first value of that vertex in the point array
+        int index = vertex * DIMENSIONS;
+        
+        // For each row of vertices in the band...
+        for (int z = firstRow; z < endRow; z++)
+        {
+            // ...and for each vertex in the row...
+            for (int x = 0; x < width; x++)
+            {
+                points[index] = getPosition(x + columnOffset, faceWidth,
+                        strength, samples.getRed(vertex));
+                points[index + 1] = getHeight(strength,
+                        samples.getGreen(vertex));
+                points[index + 2] = getPosition(z + rowOffset, faceDepth,
+                        strength, samples.getBlue(vertex));
+                
+                index = index + DIMENSIONS;
+                vertex++;
+            }
+        }
+    }
+    
+    /**
+     * Calculates this band's rows, splitting them in half first if there are
+     * enough of them to be worth sharing with another thread
+     */
+    @Override
+    protected void compute()
+    {
+        int rows = endRow - firstRow;
+        
+        // If the band is too small to be worth splitting...
+        if (rows < 2 || rows * width <= BAND_VERTICES)
+        {
+            // ...calculate it here.
+            calculateRows();
+        }
+        // ...otherwise...
+        else
+        {
+            // ...split it in half and calculate both halves in parallel.
+            int middleRow = firstRow + rows / 2;
+            
+            invokeAll(new VertexGenerator(faceWidth, faceDepth, width,
+                    firstRow, middleRow, strength, points, samples),
+                    new VertexGenerator(faceWidth, faceDepth, width,
+                    middleRow, endRow, strength, points, samples));
+        }
+    }
+    
+    /**
+     * Calculates the positions of the vertices in the given rows of a mesh
+     * and writes them into the given point array. Large meshes are split into
+     * bands of rows that are calculated in parallel. Small ones are calculated
+     * on the calling thread.
+     * 
+     * @param fWidth The width of each face on the mesh when the mesh is not
+     *               displaced
+     * @param fDepth The depth of each face on the mesh when the mesh is not
+     *               displaced
+     * @param width The width of the mesh in vertices
+     * @param firstRow The first row of vertices to be calculated
+     * @param endRow The row after the last row of vertices to be calculated
+     * @param strength The strength of the displacement map
+     * @param points The array that the positions are to be written to
+     * @param samples The color data for each vertex taken from the
+     *                displacement map
+     */
+    public static void generate(int fWidth, int fDepth, int width,
+            int firstRow, int endRow, int strength, float[] points,
+            DisplacementBuffer samples)
+    {
+        VertexGenerator generster = new VertexGenerator(fWidth, fDepth, width,
+                firstRow, endRow, strength, points, samples);
+        
+        // If the mesh is small enough that a single band covers it...
+        if ((endRow - firstRow) * width <= BAND_VERTICES)
+        {
+            // ...handing it to another thread would only slow it down.
+            generster.calculateRows();
+        }
+        else
+        {
+            POOL.invoke(generster);
+        }
+    }
+    
+    /**
+     * Gets the position of a vertex on the y scale
+     * 
+     * @param strength The strength of the displacement map
+     * @param amount The green amount in the vertex's pixel on the displacement
+     *               map
+     * 
+     * @return The vertex's position on the y scale
+     */
+    public static int getHeight(int strength, double amount)
+    {
+        return (int)((amount - MIDDLE_COLOR) * -strength);
+    }
+    
+    /**
+     * Gets the position of a vertex on either the x or z scale taking into
+     * consideration how far the displacement map should shift it
+     * 
+     * @param position The numbered position of the vertex on the given scale
+     * @param faceSize The size of each face on the given scale
+     * @param strength The strength of the displacement map
+     * @param amount The red (for x) or blue (for z) amount in the vertex's
+     *               pixel on the displacement map
+     * 
+     * @return The vertex's position on the given scale
+     */
+    public static int getPosition(int position, int faceSize, int strength,
+            double amount)
+    {
+        // The position of the vertex if no displacement map was applied
+        int originalPosition = position * faceSize;
+        
+        // How far the vertex should be shifted. It may be negative.
+        int shiftAmount = (int)((amount - MIDDLE_COLOR) * -strength);
+        
+        return originalPosition + shiftAmount;
+    }
+}
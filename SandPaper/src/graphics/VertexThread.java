@@ -60,52 +60,32 @@ public class VertexThread implements Callable<Integer>
     @Override
     public Integer call()
     {
-        // The position of the vertex if no displacement map was going to be
-        // applied
-        int originalPosition;
-        
-        // How far the vertex should be shifted. It may be negative.
-        int shiftAmount;
-        
         switch (dimension)
         {
             // If the x position is being retrieved...
             case 'x':
                 
-                // ...get the red amount in the correct pixel.
-                double redAmount = displacementColor.getRed();
-                
-                originalPosition = position * faceSize;
-                
-                // Calculate the amount to be shifted
-                shiftAmount = (int)((redAmount - 0.5) * -displacementStrength);
-                
-                position = originalPosition + shiftAmount;
+                // ...calculate it from the red amount in the correct pixel.
+                position = VertexGenerator.getPosition(position, faceSize,
+                        displacementStrength, displacementColor.getRed());
                 
                 break;
                 
             // If the y position is being retrieved...
             case 'y':
                 
-                // ...get the green amount in the correct pixel.
-                double greenAmount = displacementColor.getGreen();
-                
-                position = (int)((greenAmount - 0.5) * -displacementStrength);
+                // ...calculate it from the green amount in the correct pixel.
+                position = VertexGenerator.getHeight(displacementStrength,
+                        displacementColor.getGreen());
                 
                 break;
                 
             // If the z position is being retrieved...
             case 'z':
                 
-                // ...get the blue amount in the correct pixel.
-                double blueAmount = displacementColor.getBlue();
-                
-                originalPosition = position * faceSize;
-                
-                // Calculate the amount to be shifted
-                shiftAmount = (int)((blueAmount - 0.5) * -displacementStrength);
-                
-                position = originalPosition + shiftAmount;
+                // ...calculate it from the blue amount in the correct pixel.
+                position = VertexGenerator.getPosition(position, faceSize,
+                        displacementStrength, displacementColor.getBlue());
                 
                 break;
         }
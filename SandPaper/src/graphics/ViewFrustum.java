@@ -0,0 +1,129 @@
+package graphics;
+
+import javafx.geometry.Bounds;
+import javafx.geometry.Point3D;
+import javafx.scene.transform.Transform;
+
+/**
+ * The space the camera can see, used to find which parts of the preview can be
+ * left out of the scene.
+ * 
+ * The camera looks down the scene's z axis from its eye, so the space it sees
+ * is a pyramid widening away from the eye. The meshes in the preview are
+ * rotated rather than the camera, so anything being tested is first taken from
+ * the meshes' coordinates into the scene's.
+ * 
+ * @author George Tiersma
+ */
+public class ViewFrustum
+{
+    // The number of corners on a box
+    private static final byte BOX_CORNERS = 8;
+    
+    // How far from the eye something must be to be seen
+    private double near;
+    
+    // How far the view spreads on each axis for every unit away from the eye
+    private double spreadX;
+    private double spreadY;
+    
+    // The camera's eye in the scene's coordinates
+    private Point3D eye;
+    
+    // Takes a position in the meshes' coordinates into the scene's
+    private Transform meshToScene;
+    
+    /**
+     * CONSTRUCTOR
+     * 
+     * @param eyster The camera's eye in the scene's coordinates
+     * @param focalLength The camera's distance (in pixels) from the screen
+     * @param halfWidth Half of the width of the view
+     * @param halfHeight Half of the height of the view
+     * @param nearClip How far from the eye something must be to be seen
+     * @param transter The rotations applied to the meshes
+     */
+    public ViewFrustum(Point3D eyster, double focalLength, double halfWidth,
+            double halfHeight, double nearClip, Transform transter)
+    {
+        eye = eyster;
+        
+        near = nearClip;
+        
+        spreadX = halfWidth / focalLength;
+        spreadY = halfHeight / focalLength;
+        
+        meshToScene = transter;
+    }
+    
+    /**
+     * Gets whether or not any part of a box could be seen by the camera. A box
+     * is only said to be out of view if all of its corners are beyond the same
+     * side of the view, so a box that cannot be seen is sometimes said to be
+     * in view, but never the other way around.
+     * 
+     * @param boundster The box in the meshes' coordinates
+     * 
+     * @return Whether or not the box may be in view
+     */
+    public boolean intersects(Bounds boundster)
+    {
+        // The number of corners beyond each side of the view
+        byte beforeNear = 0;
+        byte pastLeft = 0;
+        byte pastRight = 0;
+        byte pastTop = 0;
+        byte pastBottom = 0;
+        
+        // For each corner of the box...
+        for (byte i = 0; i < BOX_CORNERS; i++)
+        {
+            // ...take it into the scene's coordinates
+            Point3D corner = meshToScene.transform(
+                    (i & 1) == 0 ? boundster.getMinX() : boundster.getMaxX(),
+                    (i & 2) == 0 ? boundster.getMinY() : boundster.getMaxY(),
+                    (i & 4) == 0 ? boundster.getMinZ() : boundster.getMaxZ());
+            
+            // How far in front of the eye the corner is
+            double depth = corner.getZ() - eye.getZ();
+            
+            // How far the view spreads at the corner's depth. Each side of the
+            // view is a plane through the eye, so this holds behind the eye
+            // too.
+            double reachX = depth * spreadX;
+            double reachY = depth * spreadY;
+            
+            double x = corner.getX() - eye.getX();
+            double y = corner.getY() - eye.getY();
+            
+            if (depth < near)
+            {
+                beforeNear++;
+            }
+            
+            if (x < -reachX)
+            {
+                pastLeft++;
+            }
+            
+            if (x > reachX)
+            {
+                pastRight++;
+            }
+            
+            if (y < -reachY)
+            {
+                pastTop++;
+            }
+            
+            if (y > reachY)
+            {
+                pastBottom++;
+            }
+        }
+        
+        return beforeNear < BOX_CORNERS && pastLeft < BOX_CORNERS
+                && pastRight < BOX_CORNERS && pastTop < BOX_CORNERS
+                && pastBottom < BOX_CORNERS;
+    }
+}
@@ -1,6 +1,9 @@
 package tabs;
 
+import graphics.ViewFrustum;
+import javafx.geometry.Point3D;
 import javafx.scene.PerspectiveCamera;
+import javafx.scene.transform.NonInvertibleTransformException;
 import javafx.scene.transform.Rotate;
 
 /**
@@ -143,6 +146,53 @@ public class CameraTab
         return DEFAULT_VERTICAL_ANGLE;
     }
     
+    /**
+     * Gets the position of the camera's eye from the mesh's point of view.
+     * Since the mesh is rotated instead of the camera, the mesh's rotations
+     * are undone on the eye's position.
+     * 
+     * @param width The width of the view the camera is rendering
+     * @param height The height of the view the camera is rendering
+     * 
+     * @return The eye's position in the mesh's coordinates
+     */
+    public Point3D getEyePosition(double width, double height)
+    {
+        Point3D eye = getSceneEyePosition(width, height);
+        
+        try
+        {
+            // The x rotation is applied to the mesh last, so it is undone
+            // first
+            eye = xRotate.inverseTransform(eye);
+            eye = yRotate.inverseTransform(eye);
+        }
+        catch (NonInvertibleTransformException ex)
+        {
+            // A rotation can always be undone, so this should never happen
+            System.out.println("ERROR: Camera rotation cannot be undone");
+        }
+        
+        return eye;
+    }
+    
+    /**
+     * Gets the space the camera can see, so that whatever is outside of it can
+     * be left out of the preview
+     * 
+     * @param width The width of the view the camera is rendering
+     * @param height The height of the view the camera is rendering
+     * 
+     * @return The camera's view frustum
+     */
+    public ViewFrustum getFrustum(double width, double height)
+    {
+        // The x rotation is applied to the mesh last
+        return new ViewFrustum(getSceneEyePosition(width, height),
+                getFocalLength(width, height), width / 2, height / 2,
+                NEAR_CLIP, xRotate.createConcatenation(yRotate));
+    }
+    
     /**
      * Gets the field of view of the camera
      * 
@@ -153,6 +203,31 @@ public class CameraTab
         return fieldOfView;
     }
     
+    /**
+     * Gets the distance of the camera's eye from the screen, measured in
+     * pixels of the view. Something this far from the eye is shown at its
+     * actual size.
+     * 
+     * @param width The width of the view the camera is rendering
+     * @param height The height of the view the camera is rendering
+     * 
+     * @return The camera's focal length
+     */
+    public double getFocalLength(double width, double height)
+    {
+        double halfAngle = Math.toRadians(camster.getFieldOfView() / 2);
+        
+        // Half of the view's size in the direction of the field of view
+        double halfSize = width / 2;
+        
+        if (camster.isVerticalFieldOfView())
+        {
+            halfSize = height / 2;
+        }
+        
+        return halfSize / Math.tan(halfAngle);
+    }
+    
     /**
      * Gets the amount to zoom in or out for when the preview is resized
      * 
@@ -216,6 +291,23 @@ public class CameraTab
         return extraZoom;
     }
     
+    /**
+     * Gets the position of the camera's eye in the scene. It sits back from the
+     * center of the view far enough that its field of view covers the whole
+     * view.
+     * 
+     * @param width The width of the view the camera is rendering
+     * @param height The height of the view the camera is rendering
+     * 
+     * @return The eye's position in the scene's coordinates
+     */
+    private Point3D getSceneEyePosition(double width, double height)
+    {
+        return new Point3D(camster.getTranslateX() + width / 2,
+                camster.getTranslateY() + height / 2,
+                camster.getTranslateZ() - getFocalLength(width, height));
+    }
+    
     /**
      * Gets how far the camera is to be adjusted on the x axis from its central
      * position
@@ -1,10 +1,13 @@
 package tabs;
 
 import graphics.Population;
+import graphics.TerrainPoints;
 import graphics.TextureObject;
+import graphics.ViewFrustum;
 import java.io.File;
 import java.util.Optional;
 import javafx.concurrent.Service;
+import javafx.geometry.Point3D;
 import javafx.scene.control.Alert;
 import javafx.scene.control.DialogPane;
 import javafx.scene.control.TextInputDialog;
@@ -80,7 +83,7 @@ public class PopulationTab
      *         the population creation, then a blank string is returned.
      */
     public String createPopulation(short terrainWidth, short terrainDepth,
-            short xRotate, short yRotate, float[] terrainPoints)
+            short xRotate, short yRotate, TerrainPoints terrainPoints)
     {
         String name = "";
         
@@ -145,6 +148,10 @@ public class PopulationTab
     {
         int index = getActivePopulationIndex();
         
+        // The population may still be generating, and its Individuals are no
+        // longer wanted
+        populations[index].cancelService();
+        
         // Create a new array with room for 1 less population
         Population[] newPopulations = new Population[populations.length - 1];
         
@@ -241,6 +248,17 @@ public class PopulationTab
         return DEFAULT_DISPLACEMENT_STRENGTH;
     }
     
+    /**
+     * Gets the size (in pixels on the screen) that a new population's
+     * Individuals must appear smaller than to be shown by impostors
+     * 
+     * @return The initial impostor size
+     */
+    public short getDefaultImpostorSize()
+    {
+        return Population.DEFAULT_IMPOSTOR_SIZE;
+    }
+    
     /**
      * Gets the initial height (measured in vertices) that a new population is
      * created with
@@ -408,7 +426,7 @@ public class PopulationTab
         return removed;
     }
     
-    public boolean removeFirstDisplacement(String name, float[] terrainPoints)
+    public boolean removeFirstDisplacement(String name, TerrainPoints terrainPoints)
     {
         boolean removed = false;
         
@@ -425,7 +443,7 @@ public class PopulationTab
         return removed;
     }
     
-    public boolean removeHeight(String name, float[] terrainPoints)
+    public boolean removeHeight(String name, TerrainPoints terrainPoints)
     {
         boolean removed = false;
         
@@ -442,7 +460,7 @@ public class PopulationTab
         return removed;
     }
     
-    public boolean removePlacement(String name, float[] terrainPoints)
+    public boolean removePlacement(String name, TerrainPoints terrainPoints)
     {
         boolean removed = false;
         
@@ -459,7 +477,7 @@ public class PopulationTab
         return removed;
     }
     
-    public boolean removeSecondDisplacement(String name, float[] terrainPoints)
+    public boolean removeSecondDisplacement(String name, TerrainPoints terrainPoints)
     {
         boolean removed = false;
         
@@ -510,7 +528,7 @@ public class PopulationTab
         return removed;
     }
     
-    public boolean removeWidth(String name, float[] terrainPoints)
+    public boolean removeWidth(String name, TerrainPoints terrainPoints)
     {
         boolean removed = false;
         
@@ -533,7 +551,7 @@ public class PopulationTab
      * @param terrainPoints The coordinates of the points used in the creation
      *                      of the terrain's mesh
      */
-    public void repositionPopulations(float[] terrainPoints)
+    public void repositionPopulations(TerrainPoints terrainPoints)
     {
         for (Population population : populations)
         {
@@ -551,6 +569,36 @@ public class PopulationTab
         activePopulation = populations[index];
     }
     
+    /**
+     * Lets all populations know where the camera is viewing them from, so
+     * that those in impostor mode can swap their distant Individuals for
+     * impostors
+     * 
+     * @param eyster The camera's eye in the preview's coordinates
+     * @param focalster The camera's distance (in pixels) from the screen
+     */
+    public void setCamera(Point3D eyster, double focalster)
+    {
+        for (Population population : populations)
+        {
+            population.setCamera(eyster, focalster);
+        }
+    }
+    
+    /**
+     * Sets the space the camera can see for all populations, so that they only
+     * put what is in view into the preview
+     * 
+     * @param frustster The camera's view frustum
+     */
+    public void setFrustum(ViewFrustum frustster)
+    {
+        for (Population population : populations)
+        {
+            population.setFrustum(frustster);
+        }
+    }
+    
     /**
      * Sets the rotation on the X axis of all populations
      * 
@@ -605,34 +653,20 @@ public class PopulationTab
     }
     
     /**
-     * Recreates all of the populations based upon the new depth of the terrain
-     * 
-     * @param terrainDepth The depth of the terrain (measured in vertices)
-     * @param terrainPoints The coordinates of the points used in the creation
-     *                      of the terrain's mesh
-     */
-    public void updateForTerrainDepthChange(short terrainDepth,
-            float[] terrainPoints)
-    {
-        for (Population population : populations)
-        {
-            population.updateForTerrainDepthChange(terrainDepth, terrainPoints);
-        }
-    }
-    
-    /**
-     * Recreates all of the populations based upon the new width of the terrain
+     * Recreates all of the populations based upon the new size of the terrain
      * 
      * @param terrainWidth The width of the terrain (measured in vertices)
+     * @param terrainDepth The depth of the terrain (measured in vertices)
      * @param terrainPoints The coordinates of the points used in the creation
      *                      of the terrain's mesh
      */
-    public void updateForTerrainWidthChange(short terrainWidth,
-            float[] terrainPoints)
+    public void updateForTerrainSizeChange(short terrainWidth,
+            short terrainDepth, TerrainPoints terrainPoints)
     {
         for (Population population : populations)
         {
-            population.updateForTerrainWidthChange(terrainWidth, terrainPoints);
+            population.updateForTerrainSizeChange(terrainWidth, terrainDepth,
+                    terrainPoints);
         }
     }
 }